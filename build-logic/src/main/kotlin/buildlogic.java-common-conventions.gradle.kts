@@ -37,7 +37,6 @@ object Libs {
     const val ADVENTURE = "4.22.0"
     const val CONFIGURATE = "4.1.2"
     const val DATAFIXERUPPER = "8.0.16"
-    const val RTREE_MULTI = "0.1"
     const val CLOUD = "2.0.0"
     const val CLOUD_EXTRAS = "2.0.0-beta.11"
     const val CLOUD_CONFIRMATION = "1.0.0-rc.1"
@@ -80,10 +79,6 @@ dependencies {
     compileOnly("com.google.code.gson:gson:2.10.1")
     testImplementation("com.google.code.gson:gson:2.10.1")
 
-    // RTree
-    implementation("com.github.davidmoten:rtree-multi:${Libs.RTREE_MULTI}")
-    testImplementation("com.github.davidmoten:rtree-multi:${Libs.RTREE_MULTI}")
-
     // Cloud
     implementation("org.incendo:cloud-annotations:${Libs.CLOUD}") {
         exclude("io.leangen.geantyref")
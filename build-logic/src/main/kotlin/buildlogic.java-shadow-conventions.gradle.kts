@@ -18,7 +18,5 @@ tasks {
         relocate("org.checkerframework", "$root.checker")
         relocate("com.github.benmanes.caffeine.cache", "$root.caffeine")
         relocate("com.google.errorprone", "$root.errorprone")
-        relocate("com.github.davidmoten.rtreemulti", "$root.rtree")
-        relocate("com.github.davidmoten.guavamini", "$root.rtree.guava")
     }
 }
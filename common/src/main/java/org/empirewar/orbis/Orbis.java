@@ -26,6 +26,9 @@ package org.empirewar.orbis;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.key.Keyed;
 
+import org.empirewar.orbis.member.MemberIndex;
+import org.empirewar.orbis.member.PermissionCache;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.selection.SelectionManager;
 import org.empirewar.orbis.world.RegionisedWorld;
@@ -43,6 +46,26 @@ public interface Orbis {
 
     SelectionManager selectionManager();
 
+    /**
+     * Gets the tracker of the regions that online players are in.
+     * @return the player region tracker
+     */
+    PlayerRegionTracker regionTracker();
+
+    /**
+     * Gets the index of the regions that each player is a member of.
+     *
+     * @return the member index
+     */
+    MemberIndex memberIndex();
+
+    /**
+     * Gets the cache of the permission checks of permission members.
+     *
+     * @return the permission cache
+     */
+    PermissionCache permissionCache();
+
     /**
      * Gets all regionised worlds.
      * @return {@link Set} of regionised worlds
@@ -57,6 +80,30 @@ public interface Orbis {
 
     boolean removeRegion(Region region);
 
+    /**
+     * Gets whether a region is stored but not loaded, such as a region of a world that is not
+     * loaded while lazy world regions are enabled.
+     * <p>
+     * Such a region is not in the region registry, but its name is still taken.
+     * @param name the name of the region
+     * @return whether the region is stored but not loaded
+     */
+    boolean isRegionStored(String name);
+
+    /**
+     * Saves a region in the background.
+     * <p>
+     * The region is snapshotted when this is called, and is written shortly after, together with
+     * any further changes to it.
+     * @param region the region to save
+     */
+    void saveRegion(Region region);
+
+    /**
+     * Saves the regions in each world in the background, if they changed.
+     */
+    void saveWorlds();
+
     Key getPlayerWorld(UUID player);
 
     boolean hasPermission(UUID player, String permission);
@@ -23,36 +23,51 @@
  */
 package org.empirewar.orbis;
 
+import com.google.gson.JsonElement;
+
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.minimessage.translation.MiniMessageTranslationStore;
 import net.kyori.adventure.translation.GlobalTranslator;
 
+import org.empirewar.orbis.area.PolygonArea;
 import org.empirewar.orbis.command.caption.OrbisCaptionProvider;
+import org.empirewar.orbis.datafixer.Schemas;
+import org.empirewar.orbis.member.MemberIndex;
+import org.empirewar.orbis.member.PermissionCache;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.region.GlobalRegion;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.registry.OrbisRegistries;
 import org.empirewar.orbis.registry.lifecycle.RegistryLifecycles;
 import org.empirewar.orbis.selection.SelectionManager;
+import org.empirewar.orbis.serialization.RegionReader;
+import org.empirewar.orbis.serialization.RegionStorage;
+import org.empirewar.orbis.serialization.RegionStorageType;
+import org.empirewar.orbis.serialization.RegionWriteQueue;
 import org.empirewar.orbis.serialization.StaticGsonProvider;
+import org.empirewar.orbis.world.RegionIndexType;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.empirewar.orbis.world.RegionisedWorldSet;
+import org.empirewar.orbis.world.WorldSettings;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.CommentedConfigurationNode;
-import org.spongepowered.configurate.ConfigurateException;
 import org.spongepowered.configurate.ConfigurationNode;
 import org.spongepowered.configurate.loader.ConfigurationLoader;
 import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -68,9 +83,19 @@ import java.util.stream.Collectors;
 public abstract class OrbisPlatform implements Orbis {
 
     private static final String GLOBAL_REGION_ID = "orbis:global";
+    private static final String REGION_WRITE_PREFIX = "region:";
 
     private final SelectionManager selectionManager = new SelectionManager();
+    private final PlayerRegionTracker regionTracker = new PlayerRegionTracker();
+    private final MemberIndex memberIndex = new MemberIndex();
+    private volatile PermissionCache permissionCache =
+            new PermissionCache(PermissionCache.DEFAULT_TTL, this::hasPermission);
     private final Map<Key, RegionisedWorldSet> worldSets = new ConcurrentHashMap<>();
+    private final RegionWriteQueue writeQueue = new RegionWriteQueue();
+    private volatile RegionStorage regionStorage;
+    private volatile boolean lazyWorldRegions;
+    // Regions that are stored but not loaded, as they are only in worlds that are not loaded
+    private final Set<String> unloadedRegions = ConcurrentHashMap.newKeySet();
 
     // Players currently visualizing regions
     private final Set<UUID> visualisingPlayers = ConcurrentHashMap.newKeySet();
@@ -83,15 +108,39 @@ public abstract class OrbisPlatform implements Orbis {
 
     public OrbisPlatform() {
         OrbisAPI.set(this);
+        OrbisRegistries.REGIONS.addListener(memberIndex);
     }
 
     protected void load() {
+        // Only needed for old regions, but slow to build, so do it in the background
+        Schemas.bootstrap();
+
         try {
             this.loadConfigs();
         } catch (IOException e) {
             logger().error("Error loading configs", e);
         }
 
+        final long permissionCacheTtl = config().node("permission-cache-ttl")
+                .getLong(PermissionCache.DEFAULT_TTL.toMillis());
+        this.permissionCache =
+                new PermissionCache(Duration.ofMillis(permissionCacheTtl), this::hasPermission);
+
+        final long regionSaveDelay = config().node("region-save-delay")
+                .getLong(RegionWriteQueue.DEFAULT_DELAY.toMillis());
+        writeQueue.delay(Duration.ofMillis(Math.max(0, regionSaveDelay)));
+        if (regionStorage != null) {
+            try {
+                regionStorage.close();
+            } catch (IOException e) {
+                logger().error("Error closing region storage", e);
+            }
+        }
+        this.regionStorage = regionStorageType().create(regionsFolder());
+        this.lazyWorldRegions = config().node("lazy-world-regions").getBoolean(false);
+        PolygonArea.maxMaskSize(config().node("polygon-mask-size")
+                .getInt(PolygonArea.DEFAULT_MAX_MASK_SIZE));
+
         MiniMessageTranslationStore store =
                 MiniMessageTranslationStore.create(Key.key("orbis", "translations"));
         store.defaultLocale(Locale.UK);
@@ -230,7 +279,25 @@ public abstract class OrbisPlatform implements Orbis {
                 }
             }
 
-            final RegionisedWorldSet set = new RegionisedWorldSet(world);
+            // Load the regions that were left until this world was loaded
+            final List<String> toLoad = new ArrayList<>();
+            for (String regionName : regionNames) {
+                if (unloadedRegions.remove(regionName)) {
+                    toLoad.add(RegionStorage.storageName(regionName));
+                }
+            }
+            if (unloadedRegions.remove(world.asString())) {
+                toLoad.add(RegionStorage.storageName(world.asString()));
+            }
+            if (!toLoad.isEmpty()) {
+                // Regions released when a world unloads may still be waiting to be written
+                writeQueue.flush(toLoad.stream().map(name -> REGION_WRITE_PREFIX + name).toList());
+                final RegionStorage storage = this.regionStorage;
+                loadStoredRegions(storage, toLoad);
+                loadPendingParents(storage);
+            }
+
+            final RegionisedWorldSet set = new RegionisedWorldSet(world, worldSettings());
             final String worldKeyName = set.worldId().orElseThrow().asString();
 
             final List<Region> regions = new ArrayList<>(regionNames.size());
@@ -264,18 +331,43 @@ public abstract class OrbisPlatform implements Orbis {
             // Also add the global region that is a part of all worlds
             set.add(OrbisRegistries.REGIONS.get(GLOBAL_REGION_ID).orElseThrow());
             // Now add all the regions that are part of this world
-            regions.forEach(set::add);
+            set.addAll(regions);
             worldSets.put(world, set);
             logger().info(
                             "Loaded world set {} ({}) with {} regions",
                             worldId,
                             world.asMinimalString(),
                             regions.size());
-        } catch (SerializationException e) {
+        } catch (IOException e) {
             logger().error("Error loading world set {} ({})", worldId, world.asMinimalString(), e);
         }
     }
 
+    private RegionStorageType regionStorageType() {
+        final String type = config().node("region-storage").getString("json");
+        try {
+            return RegionStorageType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger().warn("Unknown region storage type '{}', falling back to json", type);
+            return RegionStorageType.JSON;
+        }
+    }
+
+    private WorldSettings worldSettings() {
+        final String type = config().node("region-index").getString("tree");
+        RegionIndexType indexType;
+        try {
+            indexType = RegionIndexType.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger().warn("Unknown region index type '{}', falling back to tree", type);
+            indexType = RegionIndexType.TREE;
+        }
+
+        final int flagCacheSize = Math.max(
+                0, config().node("flag-cache-size").getInt(WorldSettings.DEFAULT.flagCacheSize()));
+        return new WorldSettings(indexType, flagCacheSize);
+    }
+
     public void loadRegions() throws IOException {
         // Flags should no longer be changed
         // (might be called multiple times in test environments)
@@ -284,22 +376,31 @@ public abstract class OrbisPlatform implements Orbis {
             OrbisRegistries.FLAGS.setLifecycle(RegistryLifecycles.frozen());
         }
 
-        File regionsFolder = dataFolder().resolve("regions").toFile();
-        if (!regionsFolder.exists()) regionsFolder.mkdirs();
-        for (File regionFile : regionsFolder.listFiles()) {
-            if (!regionFile.getName().endsWith(".json")) continue;
-            try (FileReader reader = new FileReader(regionFile)) {
-                final Region region = StaticGsonProvider.GSON.fromJson(reader, Region.class);
-                if (region == null) {
-                    logger().error(
-                                    "Error loading region from '{}' - is the file corrupted?",
-                                    regionFile);
-                    continue;
-                }
-                OrbisRegistries.REGIONS.register(region.name(), region);
+        Files.createDirectories(regionsFolder());
+        final RegionStorage storage = this.regionStorage;
+
+        // Regions that are only in worlds are loaded with those worlds
+        final Map<String, String> worldRegions = new HashMap<>();
+        if (lazyWorldRegions) {
+            for (String regionName : worldRegionNames()) {
+                worldRegions.put(RegionStorage.storageName(regionName), regionName);
             }
         }
 
+        unloadedRegions.clear();
+        final List<String> names = new ArrayList<>();
+        for (String name : storage.list()) {
+            final String worldRegion = worldRegions.get(name);
+            if (worldRegion != null && !worldRegion.equals(GLOBAL_REGION_ID)) {
+                unloadedRegions.add(worldRegion);
+            } else {
+                names.add(name);
+            }
+        }
+
+        loadStoredRegions(storage, names);
+        loadPendingParents(storage);
+
         // Global region encompassing all worlds is either already loaded from a file, or is created
         // here
         final boolean hasGlobalRegion =
@@ -319,21 +420,187 @@ public abstract class OrbisPlatform implements Orbis {
         }
     }
 
+    /**
+     * Reads and registers stored regions.
+     *
+     * @param storage the storage to read from
+     * @param names the names the regions are stored by
+     */
+    private void loadStoredRegions(RegionStorage storage, List<String> names) throws IOException {
+        // Read and decode regions in parallel. Resolving region parents goes through the registry,
+        // so that and registering happen on this thread, in name order.
+        final List<RegionReader.PendingRegion> parsed;
+        try {
+            parsed = names.parallelStream()
+                    .map(name -> readRegion(storage, name))
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        final List<Region> loaded = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            final RegionReader.PendingRegion pending = parsed.get(i);
+            final Region region = pending == null ? null : pending.finish();
+            if (region == null) {
+                logger().error(
+                                "Error loading region '{}' - is the file corrupted?",
+                                names.get(i));
+                continue;
+            }
+            OrbisRegistries.REGIONS.register(region.name(), region);
+            loaded.add(region);
+        }
+
+        // Resolving parents changes regions while loading, but they match their files
+        loaded.forEach(Region::clearDirty);
+    }
+
+    /**
+     * Loads the unloaded regions that loaded regions are waiting for as a parent, even if their
+     * worlds are not loaded.
+     *
+     * @param storage the storage to read from
+     */
+    private void loadPendingParents(RegionStorage storage) throws IOException {
+        while (true) {
+            final List<String> parents = new ArrayList<>();
+            for (String regionName : OrbisRegistries.REGIONS.pendingKeys()) {
+                if (unloadedRegions.remove(regionName)) {
+                    parents.add(RegionStorage.storageName(regionName));
+                }
+            }
+
+            if (parents.isEmpty()) return;
+            writeQueue.flush(parents.stream().map(name -> REGION_WRITE_PREFIX + name).toList());
+            // These may wait for parents of their own
+            loadStoredRegions(storage, parents);
+        }
+    }
+
+    /**
+     * Gets the names of the regions that belong to worlds: the regions in each world in the
+     * worlds config, and the global region of each world.
+     *
+     * @return the region names
+     */
+    private Set<String> worldRegionNames() throws SerializationException {
+        final Set<String> names = new HashSet<>();
+        final ConfigurationNode worldsNode = worldsConfig().node("worlds");
+        for (Map.Entry<Object, ? extends ConfigurationNode> world :
+                worldsNode.childrenMap().entrySet()) {
+            names.add((String) world.getKey());
+            names.addAll(world.getValue().node("regions").getList(String.class, List.of()));
+        }
+        return names;
+    }
+
+    private static RegionReader.@Nullable PendingRegion readRegion(
+            RegionStorage storage, String name) {
+        try {
+            return storage.readRegion(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Saves every region that changed, and waits until everything queued has been written.
+     * <p>
+     * This should be called when the server stops, followed by {@link #shutdown()} once it has.
+     */
     public void saveRegions() throws IOException {
-        File regionsFolder = dataFolder().resolve("regions").toFile();
-        if (!regionsFolder.exists()) regionsFolder.mkdirs();
+        Files.createDirectories(regionsFolder());
 
+        // Only regions that changed since they were loaded or last saved are written
         for (Region region : OrbisRegistries.REGIONS.getAll()) {
-            File regionFile = new File(
-                    regionsFolder + File.separator + region.name().replace(":", "-") + ".json");
-            try (FileWriter writer = new FileWriter(regionFile)) {
-                StaticGsonProvider.GSON.toJson(region, writer);
+            if (region.isDirty()) {
+                this.saveRegion(region);
             }
         }
 
-        for (RegionisedWorld world : getRegionisedWorlds()) {
-            this.saveWorldSet(world);
+        this.saveWorlds();
+        writeQueue.flush();
+    }
+
+    /**
+     * Writes everything still queued, such as by worlds that unloaded after
+     * {@link #saveRegions()}, and closes the region storage.
+     * <p>
+     * This should be called last, once the server has stopped.
+     * @throws IOException if the region storage could not be closed
+     */
+    public void shutdown() throws IOException {
+        writeQueue.flush();
+        regionStorage.close();
+    }
+
+    @Override
+    public void saveRegion(Region region) {
+        // Cleared before the snapshot, so that a change made after it is saved again
+        region.clearDirty();
+        final JsonElement json = StaticGsonProvider.GSON.toJsonTree(region);
+        final RegionStorage storage = this.regionStorage;
+        final String name = RegionStorage.storageName(region.name());
+        writeQueue.queue(REGION_WRITE_PREFIX + name, () -> {
+            try {
+                storage.write(name, json);
+            } catch (IOException e) {
+                region.markDirty();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void saveWorlds() {
+        boolean worldsChanged = false;
+        try {
+            for (RegionisedWorld world : getRegionisedWorlds()) {
+                worldsChanged |= this.updateWorldSet(world);
+            }
+        } catch (IOException e) {
+            logger().error("Error saving worlds", e);
+        }
+
+        if (worldsChanged) {
+            this.saveWorldsConfig();
+        }
+    }
+
+    private Path regionsFolder() {
+        return dataFolder().resolve("regions");
+    }
+
+    /**
+     * Writes every region as a JSON file, such as to be read or edited by hand.
+     * <p>
+     * Regions of worlds that are not loaded are copied from storage as they are.
+     *
+     * @param folder the folder to write the files to
+     * @return the number of regions written
+     * @throws IOException if a region could not be written
+     */
+    public int exportRegions(Path folder) throws IOException {
+        final RegionStorage export = RegionStorageType.JSON.create(folder);
+        int exported = 0;
+        for (Region region : OrbisRegistries.REGIONS.getAll()) {
+            final JsonElement json = StaticGsonProvider.GSON.toJsonTree(region);
+            export.write(RegionStorage.storageName(region.name()), json);
+            exported++;
+        }
+
+        final List<String> unloaded = unloadedRegions.stream()
+                .map(RegionStorage::storageName)
+                .toList();
+        writeQueue.flush(unloaded.stream().map(name -> REGION_WRITE_PREFIX + name).toList());
+        for (String name : unloaded) {
+            final JsonElement json = regionStorage.read(name);
+            if (json == null) continue;
+            export.write(name, json);
+            exported++;
         }
+        return exported;
     }
 
     public void saveWorld(Key world, UUID worldId) {
@@ -348,7 +615,13 @@ public abstract class OrbisPlatform implements Orbis {
         }
 
         try {
-            this.saveWorldSet(removed);
+            if (this.updateWorldSet(removed)) {
+                this.saveWorldsConfig();
+            }
+
+            if (lazyWorldRegions) {
+                this.releaseRegions(removed);
+            }
         } catch (IOException e) {
             this.logger()
                     .error(
@@ -359,22 +632,91 @@ public abstract class OrbisPlatform implements Orbis {
         }
     }
 
-    private void saveWorldSet(RegionisedWorld world) throws IOException {
-        world.worldId().ifPresent(id -> logger().info("Saving world {}", id));
-        final ConfigurationNode node =
-                worldsConfig().node("worlds", world.worldId().orElseThrow().asString(), "regions");
+    /**
+     * Unregisters the regions of an unloaded world, so that they are loaded again with the world.
+     * <p>
+     * Regions that are in another loaded world, and parents of regions that stay loaded, are kept.
+     * Regions that changed are saved first.
+     *
+     * @param world the unloaded world
+     */
+    private void releaseRegions(RegionisedWorld world) throws SerializationException {
+        final Set<String> worldRegions = worldRegionNames();
+        final Set<Region> released = new HashSet<>();
+        for (Region region : world.regions()) {
+            if (worldRegions.contains(region.name()) && !region.name().equals(GLOBAL_REGION_ID)) {
+                released.add(region);
+            }
+        }
+
+        for (RegionisedWorld other : getRegionisedWorlds()) {
+            released.removeAll(other.regions());
+        }
+
+        // Children keep their parents, so keep any parent of a region that stays loaded
+        boolean kept = true;
+        while (kept) {
+            kept = false;
+            for (Region region : OrbisRegistries.REGIONS.getAll()) {
+                if (region.isGlobal() || released.contains(region)) continue;
+                for (Region parent : region.parents()) {
+                    kept |= released.remove(parent);
+                }
+            }
+        }
+
+        for (Region region : released) {
+            if (region.isDirty()) {
+                this.saveRegion(region);
+            }
+
+            // Detach from parents that stay loaded
+            if (!region.isGlobal()) {
+                region.parents().forEach(region::removeParent);
+            }
+            OrbisRegistries.REGIONS.unregister(region.key());
+            unloadedRegions.add(region.name());
+        }
+
+        if (!released.isEmpty()) {
+            logger().info(
+                            "Unloaded {} regions of world {}",
+                            released.size(),
+                            world.worldId().orElseThrow().asString());
+        }
+    }
+
+    /**
+     * Updates the regions of a world in the worlds config.
+     *
+     * @return true if the regions in the world changed, so the config should be saved
+     */
+    private boolean updateWorldSet(RegionisedWorld world) throws IOException {
+        final String worldName = world.worldId().orElseThrow().asString();
+        final ConfigurationNode node = worldsConfig().node("worlds", worldName, "regions");
         final List<String> regionsInWorld = new ArrayList<>();
         for (Region region : world.regions()) {
-            if (region.name().equals(world.worldId().orElseThrow().asString())) continue;
+            if (region.name().equals(worldName)) continue;
             regionsInWorld.add(region.name());
         }
-        node.setList(String.class, regionsInWorld);
 
-        try {
-            loaderWorlds.save(worldsConfig());
-        } catch (ConfigurateException e) {
-            logger().error("Error saving worlds", e);
+        if (Set.copyOf(node.getList(String.class, List.of())).equals(Set.copyOf(regionsInWorld))) {
+            return false;
         }
+
+        logger().info("Saving world {}", worldName);
+        node.setList(String.class, regionsInWorld);
+        return true;
+    }
+
+    private void saveWorldsConfig() {
+        final ConfigurationNode snapshot = worldsConfig().copy();
+        writeQueue.queue("worlds.yml", () -> loaderWorlds.save(snapshot));
+    }
+
+    @Override
+    public boolean isRegionStored(String name) {
+        return unloadedRegions.contains(name);
     }
 
     @Override
@@ -385,10 +727,10 @@ public abstract class OrbisPlatform implements Orbis {
         }
         anySucceeded = OrbisRegistries.REGIONS.unregister(region.key()).isPresent() || anySucceeded;
 
-        File regionsFolder = dataFolder().resolve("regions").toFile();
-        File regionFile = new File(
-                regionsFolder + File.separator + region.name().replace(":", "-") + ".json");
-        return anySucceeded && regionFile.delete();
+        final RegionStorage storage = this.regionStorage;
+        final String name = RegionStorage.storageName(region.name());
+        writeQueue.queue(REGION_WRITE_PREFIX + name, () -> storage.delete(name));
+        return anySucceeded;
     }
 
     @Override
@@ -396,6 +738,21 @@ public abstract class OrbisPlatform implements Orbis {
         return selectionManager;
     }
 
+    @Override
+    public PlayerRegionTracker regionTracker() {
+        return regionTracker;
+    }
+
+    @Override
+    public MemberIndex memberIndex() {
+        return memberIndex;
+    }
+
+    @Override
+    public PermissionCache permissionCache() {
+        return permissionCache;
+    }
+
     @Override
     public Set<RegionisedWorld> getRegionisedWorlds() {
         return worldSets.values().stream().collect(Collectors.toUnmodifiableSet());
@@ -52,7 +52,13 @@ public final class CuboidArea extends EncompassingArea {
         super();
     }
 
-    private CuboidArea(List<Vector3ic> points) {
+    /**
+     * Creates an area with all of its points at once, such as when it is loaded.
+     * <p>
+     * This calculates the shape once, instead of once for each point added.
+     * @param points the points
+     */
+    public CuboidArea(List<Vector3ic> points) {
         super(points);
     }
 
@@ -44,6 +44,7 @@ public abstract sealed class EncompassingArea implements Area
     protected final Vector3i max = new Vector3i();
 
     private final List<Runnable> updateListeners = new ArrayList<>(1);
+    private volatile boolean dirty = true;
 
     EncompassingArea() {
         final int expected = getMaximumPoints().orElse(0);
@@ -66,6 +67,21 @@ public abstract sealed class EncompassingArea implements Area
         this.updateListeners.remove(listener);
     }
 
+    /**
+     * Gets whether the points or shape of this area have changed since it was last saved.
+     * @return true if this area has changed
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Marks this area as saved.
+     */
+    public void clearDirty() {
+        dirty = false;
+    }
+
     /**
      * Calculates the minimum and maximum points of this area.
      */
@@ -103,6 +119,7 @@ public abstract sealed class EncompassingArea implements Area
             this.boundaryPoints.addAll(generateBoundaryPoints());
         }
 
+        dirty = true;
         // Copy to prevent concurrent modification
         List.copyOf(updateListeners).forEach(Runnable::run);
     }
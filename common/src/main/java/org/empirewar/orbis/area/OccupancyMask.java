@@ -0,0 +1,156 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.area;
+
+import net.kyori.adventure.util.TriState;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Which blocks of the XZ footprint of a polygon are inside it.
+ * <p>
+ * Each block is either entirely inside the polygon, entirely outside it, or crossed by one of its
+ * edges. Only blocks crossed by an edge still need to be tested against the edges themselves.
+ */
+final class OccupancyMask {
+
+    private static final double EPSILON = 1e-7;
+
+    private final int minX;
+    private final int minZ;
+    private final int width;
+    private final int depth;
+    private final BitSet inside;
+    private final BitSet edge;
+
+    private OccupancyMask(int minX, int minZ, int width, int depth) {
+        this.minX = minX;
+        this.minZ = minZ;
+        this.width = width;
+        this.depth = depth;
+        this.inside = new BitSet(width * depth);
+        this.edge = new BitSet(width * depth);
+    }
+
+    /**
+     * Builds the mask of a polygon.
+     *
+     * @param vertices the X and Z of each point of the polygon, in order
+     * @param minX the minimum X of the points
+     * @param minZ the minimum Z of the points
+     * @param maxX the maximum X of the points
+     * @param maxZ the maximum Z of the points
+     * @param maxSize the largest number of blocks to build a mask for
+     * @return the mask, or null if the footprint has more than {@code maxSize} blocks
+     */
+    static @Nullable OccupancyMask build(
+            int[] vertices, int minX, int minZ, int maxX, int maxZ, int maxSize) {
+        final long width = (long) maxX - minX + 1;
+        final long depth = (long) maxZ - minZ + 1;
+        if (width * depth > maxSize) return null;
+
+        final OccupancyMask mask = new OccupancyMask(minX, minZ, (int) width, (int) depth);
+        mask.fillInside(vertices);
+        for (int i = 0; i < vertices.length; i += 2) {
+            final int next = (i + 2) % vertices.length;
+            mask.markEdge(vertices[i], vertices[i + 1], vertices[next], vertices[next + 1]);
+        }
+        return mask;
+    }
+
+    /**
+     * Gets whether a position is inside the polygon.
+     *
+     * @param x the x coordinate, within the footprint
+     * @param z the z coordinate, within the footprint
+     * @return whether the position is inside, or {@link TriState#NOT_SET} if its block is crossed
+     *         by an edge
+     */
+    TriState get(double x, double z) {
+        final int index = ((int) Math.floor(z) - minZ) * width + ((int) Math.floor(x) - minX);
+        if (edge.get(index)) return TriState.NOT_SET;
+        return TriState.byBoolean(inside.get(index));
+    }
+
+    private void fillInside(int[] vertices) {
+        // Fill each row between pairs of edge crossings at the middle of the row. No vertex is
+        // ever there, and blocks whose middle is on an edge are crossed by it anyway.
+        final double[] crossings = new double[vertices.length / 2];
+        for (int row = minZ; row < minZ + depth; row++) {
+            final double z = row + 0.5;
+            int count = 0;
+            for (int i = 0; i < vertices.length; i += 2) {
+                final int next = (i + 2) % vertices.length;
+                final int x0 = vertices[i], z0 = vertices[i + 1];
+                final int x1 = vertices[next], z1 = vertices[next + 1];
+                if ((z0 > z) != (z1 > z)) {
+                    crossings[count++] = x0 + (z - z0) * (x1 - x0) / (z1 - z0);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+
+            final int rowStart = (row - minZ) * width;
+            for (int i = 0; i + 1 < count; i += 2) {
+                // Blocks whose middle is between the crossings
+                final int from = Math.max(minX, (int) Math.ceil(crossings[i] - 0.5));
+                final int to = Math.min(minX + width - 1, (int) Math.floor(crossings[i + 1] - 0.5));
+                if (from <= to) {
+                    inside.set(rowStart + from - minX, rowStart + to - minX + 1);
+                }
+            }
+        }
+    }
+
+    private void markEdge(int x0, int z0, int x1, int z1) {
+        final int edgeMinX = Math.min(x0, x1), edgeMaxX = Math.max(x0, x1);
+        // Every block whose square, including its sides, touches the edge
+        for (int column = Math.max(minX, edgeMinX - 1);
+                column <= Math.min(minX + width - 1, edgeMaxX);
+                column++) {
+            final double lowZ, highZ;
+            if (x0 == x1) {
+                lowZ = Math.min(z0, z1);
+                highZ = Math.max(z0, z1);
+            } else {
+                final double fromZ = zAt(x0, z0, x1, z1, Math.max(column, edgeMinX));
+                final double toZ = zAt(x0, z0, x1, z1, Math.min(column + 1, edgeMaxX));
+                lowZ = Math.min(fromZ, toZ);
+                highZ = Math.max(fromZ, toZ);
+            }
+
+            final int fromRow = Math.max(minZ, (int) Math.ceil(lowZ - 1 - EPSILON));
+            final int toRow = Math.min(minZ + depth - 1, (int) Math.floor(highZ + EPSILON));
+            for (int row = fromRow; row <= toRow; row++) {
+                edge.set((row - minZ) * width + column - minX);
+            }
+        }
+    }
+
+    private static double zAt(int x0, int z0, int x1, int z1, int x) {
+        return z0 + (double) (x - x0) * (z1 - z0) / (x1 - x0);
+    }
+}
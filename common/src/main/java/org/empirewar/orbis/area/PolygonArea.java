@@ -26,8 +26,10 @@ package org.empirewar.orbis.area;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
+import net.kyori.adventure.util.TriState;
+
 import org.empirewar.orbis.util.ExtraCodecs;
-import org.joml.Vector3d;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3dc;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
@@ -52,11 +54,28 @@ public sealed class PolygonArea extends EncompassingArea permits PolyhedralArea
                             .forGetter(c -> new LinkedList<>(c.points)))
                     .apply(instance, PolygonArea::new));
 
+    /**
+     * The default for {@link #maxMaskSize(int)}.
+     */
+    public static final int DEFAULT_MAX_MASK_SIZE = 1 << 20;
+
+    private static volatile int maxMaskSize = DEFAULT_MAX_MASK_SIZE;
+
+    // Replaced as a whole, so readers on other threads never see two versions of the shape.
+    // Not initialised here, as the super constructor already sets it.
+    private Shape shape;
+
     public PolygonArea() {
         super();
     }
 
-    protected PolygonArea(List<Vector3ic> points) {
+    /**
+     * Creates an area with all of its points at once, such as when it is loaded.
+     * <p>
+     * This calculates the shape once, instead of once for each point added.
+     * @param points the points
+     */
+    public PolygonArea(List<Vector3ic> points) {
         super(points);
     }
 
@@ -68,46 +87,103 @@ public sealed class PolygonArea extends EncompassingArea permits PolyhedralArea
     @Override
     public boolean contains(double x, double y, double z) {
         // Check within cuboid area first
-        if (x < min.x() || x > max.x() || z < min.z() || z > max.z()) {
+        if (x < min.x()
+                || x > max.x()
+                || y < min.y()
+                || y > max.y()
+                || z < min.z()
+                || z > max.z()) {
             return false;
         }
 
-        // https://www.eecs.umich.edu/courses/eecs380/HANDOUTS/PROJ2/InsidePoly.html
-        double angle = 0;
-
-        final Vector3dc blockPosition = new Vector3d(x, y, z);
-        final List<Vector3ic> pointsList = new ArrayList<>(points);
-        for (int i = 0; i < points.size(); i++) {
-            final Vector3ic point = pointsList.get(i);
-            final Vector3ic nextPoint = pointsList.get((i + 1) % pointsList.size());
-            double xOffset = point.x() - blockPosition.x();
-            double zOffset = point.z() - blockPosition.z();
-            double nextXOffset = nextPoint.x() - blockPosition.x();
-            double nextZOffset = nextPoint.z() - blockPosition.z();
-            angle += angle(xOffset, zOffset, nextXOffset, nextZOffset);
+        final Shape shape = this.shape;
+        if (shape.mask() != null) {
+            // Only blocks crossed by an edge need the edges tested
+            final TriState occupied = shape.mask().get(x, z);
+            if (occupied != TriState.NOT_SET) {
+                return occupied == TriState.TRUE;
+            }
         }
 
-        // If the angle is zero, it is on the edge
-        return Math.abs(angle) >= Math.PI || angle == 0;
+        final int[] vertices = shape.vertices();
+        if (vertices.length < getMinimumPoints() * 2) return false;
+
+        // Crossing number test: count the edges crossed by a ray from the point towards +X
+        boolean inside = false;
+        int prevX = vertices[vertices.length - 2];
+        int prevZ = vertices[vertices.length - 1];
+        for (int i = 0; i < vertices.length; i += 2) {
+            final int vertexX = vertices[i];
+            final int vertexZ = vertices[i + 1];
+            // Which side of the edge the point is on, or 0 if it is on the line of the edge
+            final double side = (double) (vertexX - prevX) * (z - prevZ)
+                    - (double) (vertexZ - prevZ) * (x - prevX);
+            if (side == 0
+                    && x >= Math.min(prevX, vertexX)
+                    && x <= Math.max(prevX, vertexX)
+                    && z >= Math.min(prevZ, vertexZ)
+                    && z <= Math.max(prevZ, vertexZ)) {
+                // Points on an edge are inside
+                return true;
+            }
+
+            // The ray crosses edges that span its Z when the point is before the crossing
+            if ((prevZ > z) != (vertexZ > z) && (side > 0) == (vertexZ > prevZ)) {
+                inside = !inside;
+            }
+            prevX = vertexX;
+            prevZ = vertexZ;
+        }
+        return inside;
     }
 
-    /**
-     * Return the angle between two vectors on a plane.
-     * The angle is from vector 1 to vector 2, positive anticlockwise.
-     * The result is between -pi and pi.
-     */
-    private double angle(double x1, double y1, double x2, double y2) {
-        double dTheta, theta1, theta2;
+    @Override
+    protected void calculateEncompassingArea() {
+        // Set before the update listeners run, so nothing sees the new bounds with the old shape
+        this.shape = calculateShape();
+        super.calculateEncompassingArea();
+    }
 
-        theta1 = Math.atan2(y1, x1);
-        theta2 = Math.atan2(y2, x2);
-        dTheta = theta2 - theta1;
-        while (dTheta > Math.PI) dTheta -= Math.PI * 2;
-        while (dTheta < -Math.PI) dTheta += Math.PI * 2;
+    private Shape calculateShape() {
+        final int[] vertices = new int[points.size() * 2];
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        int i = 0;
+        for (Vector3ic point : points) {
+            vertices[i++] = point.x();
+            vertices[i++] = point.z();
+            minX = Math.min(minX, point.x());
+            minZ = Math.min(minZ, point.z());
+            maxX = Math.max(maxX, point.x());
+            maxZ = Math.max(maxZ, point.z());
+        }
+
+        // Polyhedra test their faces instead
+        if (points.size() < getMinimumPoints() || getType() != AreaType.POLYGON) {
+            return new Shape(vertices, null);
+        }
+        return new Shape(
+                vertices, OccupancyMask.build(vertices, minX, minZ, maxX, maxZ, maxMaskSize));
+    }
 
-        return dTheta;
+    /**
+     * Sets the largest XZ footprint, in blocks, of a polygon that precomputes which of its blocks
+     * are inside it. Checking a position in such a polygon is then a lookup, rather than a test
+     * against each edge.
+     * <p>
+     * This applies to polygons created or changed afterwards.
+     * @param blocks the largest footprint, or 0 to never precompute
+     */
+    public static void maxMaskSize(int blocks) {
+        maxMaskSize = Math.max(0, blocks);
     }
 
+    /**
+     * The X and Z of each point in order, so that checking a position does not allocate, and the
+     * occupancy of the footprint if it is small enough.
+     */
+    private record Shape(int[] vertices, @Nullable OccupancyMask mask) {}
+
     @Override
     public AreaType<?> getType() {
         return AreaType.POLYGON;
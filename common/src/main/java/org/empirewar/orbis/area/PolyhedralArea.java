@@ -28,12 +28,11 @@ import com.mojang.serialization.codecs.RecordCodecBuilder;
 
 import org.empirewar.orbis.util.ExtraCodecs;
 import org.empirewar.orbis.util.QuickHull3D;
-import org.joml.Vector3d;
-import org.joml.Vector3dc;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -68,30 +67,42 @@ public final class PolyhedralArea extends PolygonArea {
 
     public record Face(List<Vertex> vertices) {}
 
-    private List<Edge> edges;
-    private List<Face> faces;
+    /**
+     * The edges of the hull, and the unit normal and offset of the plane of each face, pointing
+     * out of the polyhedron.
+     */
+    private record Shape(List<Edge> edges, double[] planes) {}
+
+    // Replaced as a whole, so readers on other threads never see two versions of the shape.
+    // Not initialised here, as the super constructor already sets it.
+    private Shape shape;
 
     public PolyhedralArea() {
         super();
     }
 
-    private PolyhedralArea(List<Vector3ic> points) {
+    /**
+     * Creates an area with all of its points at once, such as when it is loaded.
+     * <p>
+     * This calculates the shape once, instead of once for each point added.
+     * @param points the points
+     */
+    public PolyhedralArea(List<Vector3ic> points) {
         super(points);
     }
 
     @Override
     protected void calculateEncompassingArea() {
-        super.calculateEncompassingArea();
+        // Set before the update listeners run, so nothing sees the new bounds with the old shape
+        List<Face> faces;
         try {
-            this.faces = getPolyhedronFaces();
-            this.edges = getPolyhedronEdges(faces);
-            this.boundaryPoints.clear();
-            if (points.size() >= getMinimumPoints()) {
-                this.boundaryPoints.addAll(generateBoundaryPoints());
-            }
+            faces = getPolyhedronFaces();
         } catch (IllegalArgumentException ignored) {
             // Means there were not enough points
+            faces = List.of();
         }
+        this.shape = new Shape(List.copyOf(getPolyhedronEdges(faces)), getPlanes(faces));
+        super.calculateEncompassingArea();
     }
 
     @Override
@@ -106,53 +117,81 @@ public final class PolyhedralArea extends PolygonArea {
             return false;
         }
 
-        Vector3dc point = new Vector3d(x, y, z);
+        final double[] planes = this.shape.planes();
+        if (planes.length == 0) return false;
 
-        // Check if point is exactly on a vertex
-        for (Vector3ic vertex : points) {
-            double dist = point.distanceSquared(vertex.x(), vertex.y(), vertex.z());
-            if (dist < EPSILON * EPSILON) {
-                return true; // Point is on a vertex
+        // The hull is convex, so a point is inside if it is behind the plane of every face
+        for (int i = 0; i < planes.length; i += 4) {
+            final double distance =
+                    planes[i] * x + planes[i + 1] * y + planes[i + 2] * z - planes[i + 3];
+            // Points on a face, edge or vertex are inside
+            if (distance > EPSILON) {
+                return false;
             }
         }
+        return true;
+    }
 
-        // Check if point is on any edge
-        for (Edge edge : edges) {
-            Vector3dc v1 = new Vector3d(edge.v1().x, edge.v1().y, edge.v1().z);
-            Vector3dc v2 = new Vector3d(edge.v2().x, edge.v2().y, edge.v2().z);
-            if (isPointOnEdge(point, v1, v2)) {
-                return true; // Point is on an edge
-            }
+    /**
+     * Calculates the plane of each face, pointing out of the polyhedron.
+     *
+     * @param faces the faces of the convex hull
+     * @return the unit normal and offset of each plane, four values per face
+     */
+    private double[] getPlanes(List<Face> faces) {
+        // The middle of the points is inside the hull, so faces are turned to point away from it
+        double middleX = 0, middleY = 0, middleZ = 0;
+        for (Vector3ic point : points) {
+            middleX += point.x();
+            middleY += point.y();
+            middleZ += point.z();
         }
+        middleX /= points.size();
+        middleY /= points.size();
+        middleZ /= points.size();
 
-        // Use ray casting algorithm for point-in-polyhedron test
-        // Cast a ray in a direction that's unlikely to be parallel to any face
-        Vector3dc rayDir = new Vector3d(1, 0.5, 0.3).normalize();
-        int intersections = 0;
+        final double[] planes = new double[faces.size() * 4];
+        int count = 0;
         for (Face face : faces) {
-            // Convert face vertices to Vector3d
-            List<Vertex> verts = face.vertices();
-            Vector3d[] vertices =
-                    verts.stream().map(v -> new Vector3d(v.x, v.y, v.z)).toArray(Vector3d[]::new);
-
-            // Check if point is on the face's plane
-            if (isPointOnFace(point, vertices)) {
-                return true; // Point is on the face
+            final List<Vertex> vertices = face.vertices();
+            final Vertex first = vertices.getFirst();
+
+            // Newell's method, relative to the first vertex so large coordinates stay precise
+            double normalX = 0, normalY = 0, normalZ = 0;
+            for (int i = 0; i < vertices.size(); i++) {
+                final Vertex a = vertices.get(i);
+                final Vertex b = vertices.get((i + 1) % vertices.size());
+                final double ax = a.x() - first.x(), ay = a.y() - first.y();
+                final double az = a.z() - first.z();
+                final double bx = b.x() - first.x(), by = b.y() - first.y();
+                final double bz = b.z() - first.z();
+                normalX += (ay - by) * (az + bz);
+                normalY += (az - bz) * (ax + bx);
+                normalZ += (ax - bx) * (ay + by);
             }
 
-            // Check intersection with the face (as triangles)
-            int faceIntersections = 0;
-            for (int i = 1; i < vertices.length - 1; i++) {
-                if (rayIntersectsTriangle(
-                        point, rayDir, vertices[0], vertices[i], vertices[i + 1])) {
-                    faceIntersections++;
-                }
+            final double length =
+                    Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+            // Faces with no area do not bound anything
+            if (length == 0) continue;
+            normalX /= length;
+            normalY /= length;
+            normalZ /= length;
+
+            double offset = normalX * first.x() + normalY * first.y() + normalZ * first.z();
+            if (normalX * middleX + normalY * middleY + normalZ * middleZ > offset) {
+                normalX = -normalX;
+                normalY = -normalY;
+                normalZ = -normalZ;
+                offset = -offset;
             }
-            intersections += faceIntersections;
-        }
 
-        // If the number of intersections is odd, the point is inside the polyhedron
-        return (intersections % 2) == 1;
+            planes[count++] = normalX;
+            planes[count++] = normalY;
+            planes[count++] = normalZ;
+            planes[count++] = offset;
+        }
+        return Arrays.copyOf(planes, count);
     }
 
     /**
@@ -182,7 +221,7 @@ public final class PolyhedralArea extends PolygonArea {
         int[][] faceIndices = hull.getFaces();
 
         // Convert face indices to actual points
-        final LinkedList<Vector3ic> pointsList = new LinkedList<>(points);
+        final List<Vector3ic> pointsList = new ArrayList<>(points);
         List<Face> faces = new ArrayList<>();
         for (int[] face : faceIndices) {
             List<Vertex> verts = new ArrayList<>();
@@ -213,191 +252,13 @@ public final class PolyhedralArea extends PolygonArea {
         return edges;
     }
 
-    /**
-     * Tests if a ray intersects a triangle using the Möller–Trumbore algorithm.
-     *
-     * @param rayOrigin The origin of the ray
-     * @param rayDir The direction of the ray (must be normalized)
-     * @param v0 First vertex of the triangle
-     * @param v1 Second vertex of the triangle
-     * @param v2 Third vertex of the triangle
-     * @return true if the ray intersects the triangle, false otherwise
-     */
-    private boolean rayIntersectsTriangle(
-            Vector3dc rayOrigin, Vector3dc rayDir, Vector3dc v0, Vector3dc v1, Vector3dc v2) {
-        // Edge vectors
-        Vector3d edge1 = new Vector3d();
-        Vector3d edge2 = new Vector3d();
-
-        // Calculate edge vectors
-        v1.sub(v0, edge1);
-        v2.sub(v0, edge2);
-
-        // Calculate determinant
-        Vector3d pvec = new Vector3d();
-        rayDir.cross(edge2, pvec);
-        double det = edge1.dot(pvec);
-
-        // If determinant is near zero, ray is parallel to triangle plane
-        if (Math.abs(det) < EPSILON) {
-            return false;
-        }
-
-        double invDet = 1.0 / det;
-
-        // Calculate distance from v0 to ray origin
-        Vector3d tvec = new Vector3d(rayOrigin).sub(v0);
-
-        // Calculate u parameter and test bounds
-        double u = tvec.dot(pvec) * invDet;
-        if (u < -EPSILON || u > 1.0 + EPSILON) {
-            return false;
-        }
-
-        // Calculate v parameter and test bounds
-        Vector3d qvec = new Vector3d();
-        tvec.cross(edge1, qvec);
-        double v = rayDir.dot(qvec) * invDet;
-        if (v < -EPSILON || (u + v) > 1.0 + EPSILON) {
-            return false;
-        }
-
-        // Calculate t, ray intersects triangle
-        double t = edge2.dot(qvec) * invDet;
-
-        // Check if the intersection is in front of the ray origin
-        // We don't need an upper bound since we're checking for ray intersection, not line segment
-        // intersection
-        return t >= -EPSILON;
-    }
-
-    /**
-     * Checks if a point lies on a face of the polyhedron.
-     *
-     * @param point The point to check
-     * @param faceVertices The vertices of the face
-     * @return true if the point is on the face, false otherwise
-     */
-    private boolean isPointOnFace(Vector3dc point, Vector3dc[] faceVertices) {
-        if (faceVertices.length < 3) {
-            return false;
-        }
-
-        // Calculate the face normal
-        Vector3d v1 = new Vector3d(faceVertices[1]).sub(faceVertices[0]);
-        Vector3d v2 = new Vector3d(faceVertices[2]).sub(faceVertices[0]);
-        Vector3d normal = new Vector3d();
-        v1.cross(v2, normal);
-
-        // Check if point is on the plane of the face
-        Vector3d p0 = new Vector3d(faceVertices[0]);
-        Vector3d p = new Vector3d(point);
-        p.sub(p0);
-        double dist = Math.abs(p.dot(normal));
-
-        if (dist > EPSILON) {
-            return false; // Point is not on the plane
-        }
-
-        // Check if point is inside the face using ray casting in 2D
-        // Project the face and point onto the most significant plane
-        int coord1, coord2;
-        double max = Math.max(Math.abs(normal.x), Math.max(Math.abs(normal.y), Math.abs(normal.z)));
-
-        if (Math.abs(normal.x) == max) {
-            coord1 = 1; // y
-            coord2 = 2; // z
-        } else if (Math.abs(normal.y) == max) {
-            coord1 = 0; // x
-            coord2 = 2; // z
-        } else {
-            coord1 = 0; // x
-            coord2 = 1; // y
-        }
-
-        // Count intersections
-        int n = faceVertices.length;
-        boolean inside = false;
-
-        for (int i = 0, j = n - 1; i < n; j = i++) {
-            double[] vj = {faceVertices[j].x(), faceVertices[j].y(), faceVertices[j].z()};
-            double[] vi = {faceVertices[i].x(), faceVertices[i].y(), faceVertices[i].z()};
-
-            double x1 = vj[coord1];
-            double y1 = vj[coord2];
-            double x2 = vi[coord1];
-            double y2 = vi[coord2];
-
-            double px = point.get(coord1);
-            double py = point.get(coord2);
-
-            // Check if point is on the edge
-            if (isPointOnEdge(px, py, x1, y1, x2, y2)) {
-                return true;
-            }
-
-            // Check for intersection with the edge
-            if (((y1 > py) != (y2 > py)) && (px < (x2 - x1) * (py - y1) / (y2 - y1) + x1)) {
-                inside = !inside;
-            }
-        }
-
-        return inside;
-    }
-
-    /**
-     * Checks if a point is on an edge between two points.
-     */
-    private boolean isPointOnEdge(
-            double px, double py, double x1, double y1, double x2, double y2) {
-        // If the point is not within the bounding box of the edge, it's not on the edge
-        if (px < Math.min(x1, x2) - EPSILON
-                || px > Math.max(x1, x2) + EPSILON
-                || py < Math.min(y1, y2) - EPSILON
-                || py > Math.max(y1, y2) + EPSILON) {
-            return false;
-        }
-
-        // Check if the point is on the line defined by the edge
-        double cross = (y2 - y1) * (px - x1) - (x2 - x1) * (py - y1);
-        return Math.abs(cross) < EPSILON;
-    }
-
-    /**
-     * Checks if a point lies on an edge between two points.
-     *
-     * @param point The point to check
-     * @param v1 First vertex of the edge
-     * @param v2 Second vertex of the edge
-     * @return true if the point is on the edge, false otherwise
-     */
-    private boolean isPointOnEdge(Vector3dc point, Vector3dc v1, Vector3dc v2) {
-        // Calculate the vector from v1 to point
-        Vector3d v1ToPoint = new Vector3d(point).sub(v1);
-
-        // Calculate the vector from v1 to v2
-        Vector3d edge = new Vector3d(v2).sub(v1);
-
-        // If point is not colinear with the edge, it's not on the edge
-        Vector3d cross = new Vector3d();
-        v1ToPoint.cross(edge, cross);
-        if (cross.lengthSquared() > EPSILON * EPSILON) {
-            return false;
-        }
-
-        // Calculate the parameter t where point = v1 + t * edge
-        double t = v1ToPoint.dot(edge) / edge.lengthSquared();
-
-        // Check if t is between 0 and 1 (inclusive with epsilon tolerance)
-        return t >= -EPSILON && t <= 1.0 + EPSILON;
-    }
-
     @Override
     public Set<Vector3ic> getBoundaryPoints() {
         Set<Vector3ic> points = new HashSet<>();
-        if (edges == null) calculateEncompassingArea();
-        if (edges != null) {
-            for (Edge edge : edges) {
+        if (shape == null) calculateEncompassingArea();
+        final Shape shape = this.shape;
+        if (shape != null) {
+            for (Edge edge : shape.edges()) {
                 Vector3ic a = edge.v1().toVector3i();
                 Vector3ic b = edge.v2().toVector3i();
                 points.addAll(getLinePoints(a, b));
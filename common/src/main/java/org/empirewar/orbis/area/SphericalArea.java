@@ -56,7 +56,12 @@ public final class SphericalArea extends EncompassingArea {
         this.radius = 5;
     }
 
-    SphericalArea(Vector3ic point, double radius) {
+    /**
+     * Creates a sphere around a center point.
+     * @param point the center point
+     * @param radius the radius
+     */
+    public SphericalArea(Vector3ic point, double radius) {
         super(Collections.singletonList(point));
         this.radius = radius;
         calculateEncompassingArea();
@@ -34,6 +34,7 @@ import net.kyori.adventure.key.Key;
 
 import org.empirewar.orbis.Orbis;
 import org.empirewar.orbis.OrbisAPI;
+import org.empirewar.orbis.OrbisPlatform;
 import org.empirewar.orbis.area.AreaType;
 import org.empirewar.orbis.command.caption.OrbisCaptionProvider;
 import org.empirewar.orbis.command.parser.FlagValueParser;
@@ -59,6 +60,8 @@ import org.incendo.cloud.processors.cache.CaffeineCache;
 import org.incendo.cloud.processors.confirmation.ConfirmationConfiguration;
 import org.incendo.cloud.processors.confirmation.ConfirmationManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 
 public final class CommonCommands {
@@ -126,6 +129,28 @@ public final class CommonCommands {
                     }
                 }));
 
+        // Export command
+        manager.command(manager.commandBuilder("orbis")
+                .permission(Permissions.MANAGE)
+                .literal("export")
+                .handler(context -> {
+                    final OrbisPlatform platform = (OrbisPlatform) OrbisAPI.get();
+                    final Path folder = platform.dataFolder().resolve("export");
+                    try {
+                        final int exported = platform.exportRegions(folder);
+                        context.sender()
+                                .sendMessage(OrbisText.PREFIX.append(text(
+                                        "Exported " + exported + " regions to " + folder + ".",
+                                        OrbisText.EREBOR_GREEN)));
+                    } catch (IOException e) {
+                        platform.logger().error("Error exporting regions", e);
+                        context.sender()
+                                .sendMessage(OrbisText.PREFIX.append(text(
+                                        "Error exporting regions, see the console.",
+                                        OrbisText.SECONDARY_RED)));
+                    }
+                }));
+
         // Register the confirmation processor. This will enable confirmations for commands that
         // require it
         manager.registerCommandPostProcessor(confirmationManager.createPostprocessor());
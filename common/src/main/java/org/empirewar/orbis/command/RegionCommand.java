@@ -95,7 +95,9 @@ public final class RegionCommand {
         regionName = regionName.toLowerCase(Locale.ROOT);
 
         final Orbis orbis = OrbisAPI.get();
-        if (OrbisRegistries.REGIONS.get(regionName).isPresent()) {
+        // A region of a world that is not loaded yet still has its name taken
+        if (OrbisRegistries.REGIONS.get(regionName).isPresent()
+                || orbis.isRegionStored(regionName)) {
             session.sendMessage(OrbisText.PREFIX.append(
                     OrbisTranslations.REGION_ALREADY_EXISTS.arguments(Component.text(regionName))));
             return;
@@ -162,7 +164,9 @@ public final class RegionCommand {
         OrbisRegistries.REGIONS.register(regionName, region);
         if (session instanceof PlayerOrbisSession player && !region.isGlobal()) {
             orbis.getRegionisedWorld(orbis.getPlayerWorld(player.getUuid())).add(region);
+            orbis.saveWorlds();
         }
+        orbis.saveRegion(region);
         session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_CREATED.arguments(
                 Component.text(regionName), Component.text(global ? "global " : ""))));
     }
@@ -198,6 +202,7 @@ public final class RegionCommand {
             for (Vector3ic point : area.points()) {
                 region.area().addPoint(new Vector3i(point.x(), point.y(), point.z()));
             }
+            OrbisAPI.get().saveRegion(region);
             session.sendMessage(
                     OrbisText.PREFIX.append(OrbisTranslations.REGION_SET_AREA_SUCCESS.arguments(
                             Component.text(region.name()))));
@@ -231,6 +236,7 @@ public final class RegionCommand {
         }
 
         sphere.setRadius(radius);
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(
                 OrbisText.PREFIX.append(OrbisTranslations.REGION_SET_AREA_RADIUS_SUCCESS.arguments(
                         Component.text(region.name()))));
@@ -280,6 +286,7 @@ public final class RegionCommand {
             RegistryRegionFlag<T> cast = (RegistryRegionFlag<T>) flag;
             region.setFlag(cast, (T) value.instance());
         }
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_FLAG_ADDED.arguments(
                 Component.text(flag.key().asString()), Component.text(region.name()))));
     }
@@ -307,6 +314,7 @@ public final class RegionCommand {
             @Argument("region") Region region,
             @Argument("flag") RegistryRegionFlag<?> flag) {
         region.removeFlag(flag);
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_FLAG_REMOVED.arguments(
                 Component.text(flag.key().asString()), Component.text(region.name()))));
     }
@@ -332,6 +340,7 @@ public final class RegionCommand {
         // Is there a better way? I'm not sure...
         RegistryRegionFlag<T> cast = (RegistryRegionFlag<T>) flag;
         region.setFlag(cast, (T) value.instance());
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_FLAG_SET.arguments(
                 Component.text(flag.key().asString()), Component.text(region.name()))));
     }
@@ -349,6 +358,7 @@ public final class RegionCommand {
         }
 
         region.priority(priority);
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_PRIORITY_SET.arguments(
                 Component.text(region.name()), Component.text(String.valueOf(priority)))));
     }
@@ -379,6 +389,7 @@ public final class RegionCommand {
 
         try {
             region.addParent(parent);
+            OrbisAPI.get().saveRegion(region);
             session.sendMessage(
                     OrbisText.PREFIX.append(OrbisTranslations.REGION_PARENT_ADDED.arguments(
                             Component.text(parent.name()), Component.text(region.name()))));
@@ -394,6 +405,7 @@ public final class RegionCommand {
             @Argument("region") Region region,
             @Argument("parent") Region parent) {
         region.removeParent(parent);
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(
                 OrbisText.PREFIX.append(OrbisTranslations.REGION_PARENT_REMOVED.arguments(
                         Component.text(parent.name()), Component.text(region.name()))));
@@ -412,6 +424,7 @@ public final class RegionCommand {
         }
 
         if (world.add(region)) {
+            OrbisAPI.get().saveWorlds();
             session.sendMessage(
                     OrbisText.PREFIX.append(OrbisTranslations.REGION_WORLD_ADDED.arguments(
                             Component.text(region.name()),
@@ -437,6 +450,7 @@ public final class RegionCommand {
         }
 
         if (world.remove(region)) {
+            OrbisAPI.get().saveWorlds();
             session.sendMessage(
                     OrbisText.PREFIX.append(OrbisTranslations.REGION_WORLD_REMOVED.arguments(
                             Component.text(region.name()),
@@ -459,6 +473,7 @@ public final class RegionCommand {
             @Argument("y") int y,
             @Argument("z") int z) {
         if (!region.isGlobal() && region.area().addPoint(new Vector3i(x, y, z))) {
+            OrbisAPI.get().saveRegion(region);
             session.sendMessage(
                     OrbisText.PREFIX.append(OrbisTranslations.REGION_POINT_ADDED.arguments(
                             Component.text(x),
@@ -519,6 +534,7 @@ public final class RegionCommand {
     public void onAddPlayer(
             OrbisSession session, @Argument("region") Region region, @Argument("uuid") UUID uuid) {
         region.addMember(new PlayerMember(uuid));
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(
                 OrbisText.PREFIX.append(OrbisTranslations.REGION_MEMBER_PLAYER_ADDED.arguments(
                         text(uuid.toString()), text(region.name()))));
@@ -532,6 +548,7 @@ public final class RegionCommand {
             if (member instanceof PlayerMember playerMember
                     && playerMember.playerId().equals(uuid)) {
                 region.removeMember(member);
+                OrbisAPI.get().saveRegion(region);
                 session.sendMessage(OrbisText.PREFIX.append(
                         OrbisTranslations.REGION_MEMBER_PLAYER_REMOVED.arguments(
                                 text(uuid.toString()))));
@@ -550,6 +567,7 @@ public final class RegionCommand {
             @Argument("region") Region region,
             @Argument("permission") String permission) {
         region.addMember(new PermissionMember(permission));
+        OrbisAPI.get().saveRegion(region);
         session.sendMessage(
                 OrbisText.PREFIX.append(OrbisTranslations.REGION_MEMBER_PERMISSION_ADDED.arguments(
                         text(permission), text(region.name()))));
@@ -565,6 +583,7 @@ public final class RegionCommand {
             if (member instanceof PermissionMember permissionMember
                     && permissionMember.permission().equals(permission)) {
                 region.removeMember(member);
+                OrbisAPI.get().saveRegion(region);
                 session.getAudience()
                         .sendMessage(OrbisText.PREFIX.append(
                                 OrbisTranslations.REGION_MEMBER_PERMISSION_REMOVED.arguments(
@@ -755,10 +774,12 @@ public final class RegionCommand {
     }
 
     @Command("region|rg list")
-    @CommandDescription("List all regions, optionally filtered by worlds.")
+    @CommandDescription(
+            "List all regions, optionally filtered by worlds or to regions you are a member of.")
     public void onList(
             OrbisSession session,
-            @Flag(value = "worlds", suggestions = "worlds") @Nullable String[] worlds) {
+            @Flag(value = "worlds", suggestions = "worlds") @Nullable String[] worlds,
+            @Flag("mine") boolean mine) {
         final Orbis orbis = OrbisAPI.get();
         Set<Region> regions = new HashSet<>();
         if (worlds != null && worlds.length > 0) {
@@ -771,6 +792,10 @@ public final class RegionCommand {
             regions.addAll(OrbisRegistries.REGIONS.getAll());
         }
 
+        if (mine && session instanceof PlayerOrbisSession player) {
+            regions.retainAll(orbis.memberIndex().regions(player.getUuid()));
+        }
+
         if (regions.isEmpty()) {
             session.sendMessage(OrbisText.PREFIX.append(OrbisTranslations.REGION_LIST_EMPTY));
             return;
@@ -27,6 +27,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.mojang.datafixers.DSL;
 import com.mojang.datafixers.DataFixUtils;
+import com.mojang.datafixers.DataFixer;
 import com.mojang.serialization.Dynamic;
 import com.mojang.serialization.JsonOps;
 
@@ -65,20 +66,21 @@ public final class OrbisDataFixes {
     }
 
     public static JsonElement fix(DSL.TypeReference typeReference, @NonNull JsonObject object) {
+        // Checked first, so that objects that are already current never need the fixer
+        final int currentVer = OrbisDataFixes.getFixerVersion(object);
+        if (Schemas.CURRENT_VERSION == currentVer) {
+            return object;
+        }
+
+        final DataFixer fixer = Schemas.fixer();
         // Is there a version update for this object?
-        if (!Schemas.FIXER
-                .getSchema(DataFixUtils.makeKey(Schemas.CURRENT_VERSION))
+        if (!fixer.getSchema(DataFixUtils.makeKey(Schemas.CURRENT_VERSION))
                 .types()
                 .contains(typeReference.typeName())) {
             OrbisAPI.get().logger().debug("Not updating {}", typeReference.typeName());
             return object;
         }
 
-        final int currentVer = OrbisDataFixes.getFixerVersion(object);
-        if (Schemas.CURRENT_VERSION == currentVer) {
-            return object;
-        }
-
         OrbisAPI.get()
                 .logger()
                 .debug(
@@ -88,8 +90,7 @@ public final class OrbisDataFixes {
                         Schemas.CURRENT_VERSION);
 
         Dynamic<JsonElement> dynamic = new Dynamic<>(JsonOps.INSTANCE, object);
-        return Schemas.FIXER
-                .update(typeReference, dynamic, currentVer, Schemas.CURRENT_VERSION)
+        return fixer.update(typeReference, dynamic, currentVer, Schemas.CURRENT_VERSION)
                 .getValue();
     }
 }
@@ -27,14 +27,40 @@ import com.mojang.datafixers.DataFixer;
 import com.mojang.datafixers.DataFixerBuilder;
 
 import org.empirewar.orbis.datafixer.schema.Schema1;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
 
 public final class Schemas {
 
-    public static final DataFixer FIXER = Schemas.create();
     public static final int CURRENT_VERSION = 1;
 
+    private static @Nullable CompletableFuture<DataFixer> fixer;
+
     private Schemas() {}
 
+    /**
+     * Starts building the fixer on a background thread, if it has not been started already.
+     * <p>
+     * Building the fixer takes a while, so this is called while starting up, so that the first
+     * object that needs updating does not have to wait for it.
+     * @return a future completed with the fixer
+     */
+    public static synchronized CompletableFuture<DataFixer> bootstrap() {
+        if (fixer == null) {
+            fixer = CompletableFuture.supplyAsync(Schemas::create);
+        }
+        return fixer;
+    }
+
+    /**
+     * Gets the fixer, waiting for it to be built if needed.
+     * @return the fixer
+     */
+    public static DataFixer fixer() {
+        return bootstrap().join();
+    }
+
     private static DataFixer create() {
         DataFixerBuilder dataFixerBuilder = new DataFixerBuilder(CURRENT_VERSION);
         build(dataFixerBuilder);
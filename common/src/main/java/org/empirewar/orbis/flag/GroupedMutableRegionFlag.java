@@ -57,8 +57,8 @@ public final class GroupedMutableRegionFlag<T> extends MutableRegionFlag<T> {
 
     private final Set<FlagMemberGroup> groups;
 
-    GroupedMutableRegionFlag(Key key, Supplier<T> defaultValue, Codec<T> codec) {
-        super(key, defaultValue, codec);
+    GroupedMutableRegionFlag(int id, Key key, Supplier<T> defaultValue, Codec<T> codec) {
+        super(id, key, defaultValue, codec);
         this.groups = new HashSet<>();
     }
 
@@ -71,11 +71,15 @@ public final class GroupedMutableRegionFlag<T> extends MutableRegionFlag<T> {
     }
 
     public void addGroup(FlagMemberGroup group) {
-        groups.add(group);
+        if (groups.add(group)) {
+            fireUpdate();
+        }
     }
 
     public void removeGroup(FlagMemberGroup group) {
-        groups.remove(group);
+        if (groups.remove(group)) {
+            fireUpdate();
+        }
     }
 
     @Override
@@ -31,6 +31,8 @@ import net.kyori.adventure.key.Key;
 
 import org.empirewar.orbis.registry.OrbisRegistries;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 /**
@@ -57,19 +59,51 @@ public sealed class MutableRegionFlag<T> extends RegionFlag<T> permits GroupedMu
             .getCodec()
             .dispatch("region_flag_type", MutableRegionFlag::getType, RegionFlagType::codec);
 
+    private final int id;
+    private final List<Runnable> updateListeners = new ArrayList<>(1);
     private T value;
 
-    MutableRegionFlag(Key key, Supplier<T> defaultValue, Codec<T> codec) {
+    MutableRegionFlag(int id, Key key, Supplier<T> defaultValue, Codec<T> codec) {
         super(key, codec);
+        this.id = id;
         this.value = defaultValue.get();
     }
 
+    /**
+     * Gets the id of the registry flag this was created from.
+     * @return the flag id
+     * @see RegistryRegionFlag#id()
+     */
+    public int id() {
+        return id;
+    }
+
     public T getValue() {
         return value;
     }
 
     public void setValue(T value) {
         this.value = value;
+        fireUpdate();
+    }
+
+    /**
+     * Adds a listener that is run whenever this flag changes.
+     * <p>
+     * Regions use this to be notified when a flag they hold is changed.
+     * @param listener the listener to add
+     */
+    public void addUpdateListener(Runnable listener) {
+        this.updateListeners.add(listener);
+    }
+
+    public void removeUpdateListener(Runnable listener) {
+        this.updateListeners.remove(listener);
+    }
+
+    void fireUpdate() {
+        // Copy to allow listeners to modify the listeners
+        List.copyOf(updateListeners).forEach(Runnable::run);
     }
 
     public RegionFlagType<?> getType() {
@@ -31,6 +31,7 @@ import org.empirewar.orbis.registry.OrbisRegistries;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 /**
@@ -42,6 +43,9 @@ import java.util.function.Supplier;
  */
 public final class RegistryRegionFlag<T> extends RegionFlag<T> {
 
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
     private final Supplier<T> defaultValueSupplier;
     private final Class<T> defaultValueType;
     private final @Nullable String description;
@@ -49,11 +53,23 @@ public final class RegistryRegionFlag<T> extends RegionFlag<T> {
     RegistryRegionFlag(
             Key key, @Nullable String description, Supplier<T> defaultValue, Codec<T> codec) {
         super(key, codec);
+        this.id = NEXT_ID.getAndIncrement();
         this.defaultValueSupplier = defaultValue;
         this.defaultValueType = (Class<T>) defaultValue.get().getClass();
         this.description = description;
     }
 
+    /**
+     * Gets the dense numeric id of this flag.
+     * <p>
+     * Ids are assigned in creation order starting from zero, so they may be used to index arrays
+     * of flags. They are not stable between restarts and should never be persisted.
+     * @return the id of this flag
+     */
+    public int id() {
+        return id;
+    }
+
     /**
      * Gets the class of the default value of this flag.
      * @return class of the default value
@@ -67,7 +83,7 @@ public final class RegistryRegionFlag<T> extends RegionFlag<T> {
      * @return mutable representation
      */
     public MutableRegionFlag<T> asMutable() {
-        return new MutableRegionFlag<>(key, defaultValueSupplier, codec);
+        return new MutableRegionFlag<>(id, key, defaultValueSupplier, codec);
     }
 
     /**
@@ -75,7 +91,7 @@ public final class RegistryRegionFlag<T> extends RegionFlag<T> {
      * @return grouped mutable representation
      */
     public GroupedMutableRegionFlag<T> asGrouped() {
-        return new GroupedMutableRegionFlag<>(key, defaultValueSupplier, codec);
+        return new GroupedMutableRegionFlag<>(id, key, defaultValueSupplier, codec);
     }
 
     /**
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.member;
+
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.registry.OrbisRegistries;
+import org.empirewar.orbis.registry.RegistryListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the regions that each player is a {@link PlayerMember} of.
+ * <p>
+ * The index follows the regions of {@link OrbisRegistries#REGIONS} and their member changes.
+ * Permission members are not indexed, as they depend on the permissions of the player.
+ */
+public final class MemberIndex implements RegistryListener<Region> {
+
+    /**
+     * @param listener the update listener added to the region
+     * @param players the player members of the region when it was last indexed
+     */
+    private record Tracked(Runnable listener, Set<UUID> players) {}
+
+    private final Map<UUID, Set<Region>> regions = new ConcurrentHashMap<>();
+    private final Map<Region, Tracked> tracked = new HashMap<>();
+
+    /**
+     * Gets the regions that the specified player is a player member of.
+     *
+     * @param player the player
+     * @return an immutable set of the regions
+     */
+    public Set<Region> regions(UUID player) {
+        final Set<Region> found = regions.get(player);
+        return found == null ? Set.of() : Set.copyOf(found);
+    }
+
+    @Override
+    public synchronized void onRegister(Region region) {
+        if (tracked.containsKey(region)) return;
+
+        final Runnable listener = () -> update(region);
+        region.addUpdateListener(listener);
+        tracked.put(region, new Tracked(listener, Set.of()));
+        update(region);
+    }
+
+    @Override
+    public synchronized void onUnregister(Region region) {
+        final Tracked old = tracked.remove(region);
+        if (old == null) return;
+
+        region.removeUpdateListener(old.listener());
+        old.players().forEach(player -> unindex(player, region));
+    }
+
+    private synchronized void update(Region region) {
+        final Tracked old = tracked.get(region);
+        if (old == null) return;
+
+        // Most updates are not member changes, so only re-index if the members differ
+        final Set<UUID> players = region.playerMembers();
+        if (players.equals(old.players())) return;
+
+        for (UUID player : old.players()) {
+            if (!players.contains(player)) {
+                unindex(player, region);
+            }
+        }
+        for (UUID player : players) {
+            regions.computeIfAbsent(player, k -> ConcurrentHashMap.newKeySet()).add(region);
+        }
+        tracked.put(region, new Tracked(old.listener(), players));
+    }
+
+    private void unindex(UUID player, Region region) {
+        regions.computeIfPresent(player, (k, set) -> {
+            set.remove(region);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
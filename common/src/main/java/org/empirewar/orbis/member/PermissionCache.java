@@ -0,0 +1,123 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.member;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Caches the permission checks of {@link PermissionMember}s per player.
+ * <p>
+ * The results of a player expire together once the TTL has passed since their first check.
+ * Platforms invalidate a player when they log out or change world, and anything that changes
+ * permissions should call {@link #invalidate(UUID)} or {@link #invalidateAll()}.
+ */
+public final class PermissionCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(5);
+
+    private final BiPredicate<UUID, String> lookup;
+    private final @Nullable Cache<UUID, Map<String, Boolean>> players;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param ttl how long results are kept, or {@link Duration#ZERO} to disable the cache
+     * @param lookup the uncached permission check of the platform
+     */
+    public PermissionCache(Duration ttl, BiPredicate<UUID, String> lookup) {
+        this.lookup = lookup;
+        this.players = ttl.isZero() || ttl.isNegative()
+                ? null
+                : Caffeine.newBuilder().expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Checks whether a player has a permission, using a cached result if present.
+     *
+     * @param player the player
+     * @param permission the permission
+     * @return true if the player has the permission
+     */
+    public boolean hasPermission(UUID player, String permission) {
+        if (players == null) {
+            return lookup.test(player, permission);
+        }
+
+        final Map<String, Boolean> results =
+                players.get(player, k -> new ConcurrentHashMap<>());
+        final Boolean cached = results.get(permission);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        final boolean result = lookup.test(player, permission);
+        results.put(permission, result);
+        return result;
+    }
+
+    /**
+     * Removes the cached results of a player.
+     *
+     * @param player the player
+     */
+    public void invalidate(UUID player) {
+        if (players != null) {
+            players.invalidate(player);
+        }
+    }
+
+    /**
+     * Removes the cached results of every player.
+     */
+    public void invalidateAll() {
+        if (players != null) {
+            players.invalidateAll();
+        }
+    }
+
+    /**
+     * Gets the statistics of this cache.
+     *
+     * @return the cache statistics, or {@link PermissionCacheStats#DISABLED} if the cache is
+     *         disabled
+     */
+    public PermissionCacheStats stats() {
+        if (players == null) {
+            return PermissionCacheStats.DISABLED;
+        }
+        return new PermissionCacheStats(hits.sum(), misses.sum(), players.estimatedSize());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.member;
+
+/**
+ * Statistics of the {@link PermissionCache}, which can be used to tune its TTL.
+ *
+ * @param hits the number of permission checks that were answered by the cache
+ * @param misses the number of permission checks that had to ask the platform
+ * @param players the approximate number of players with cached results
+ */
+public record PermissionCacheStats(long hits, long misses, long players) {
+
+    public static final PermissionCacheStats DISABLED = new PermissionCacheStats(0, 0, 0);
+
+    /**
+     * Gets the proportion of permission checks answered by the cache.
+     *
+     * @return the hit rate, from 0 to 1
+     */
+    public double hitRate() {
+        final long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -52,7 +52,7 @@ public final class PermissionMember extends Member {
 
     @Override
     public boolean checkMember(UUID member) {
-        return OrbisAPI.get().hasPermission(member, permission);
+        return OrbisAPI.get().permissionCache().hasPermission(member, permission);
     }
 
     @Override
@@ -0,0 +1,151 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.player;
+
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.util.PackedPositions;
+import org.empirewar.orbis.world.RegionisedWorld;
+import org.empirewar.orbis.world.SortedRegionView;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the regions that each online player is in.
+ * <p>
+ * Movement handlers only query the regions at the destination of a player, and the regions they
+ * entered and left are computed against the cached regions of their last position.
+ */
+public final class PlayerRegionTracker {
+
+    /**
+     * @param world the world the player is in
+     * @param position the block position of the player, packed with {@link PackedPositions}
+     * @param regions the regions at the position
+     */
+    private record Tracked(RegionisedWorld world, long position, SortedRegionView regions) {}
+
+    /**
+     * A movement of a player between blocks.
+     *
+     * @param world the world the player moved to
+     * @param position the block position the player moved to, packed with {@link PackedPositions}
+     * @param from the regions the player was in
+     * @param to the regions the player moved into
+     * @param entered the regions in {@code to} but not in {@code from}
+     * @param left the regions in {@code from} but not in {@code to}
+     */
+    public record Transition(
+            RegionisedWorld world,
+            long position,
+            SortedRegionView from,
+            SortedRegionView to,
+            List<Region> entered,
+            List<Region> left) {}
+
+    private final Map<UUID, Tracked> players = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the regions the player was last tracked in.
+     *
+     * @param player the player
+     * @return the regions of the player, or {@link SortedRegionView#EMPTY} if not tracked
+     */
+    public SortedRegionView regions(UUID player) {
+        final Tracked tracked = players.get(player);
+        return tracked == null ? SortedRegionView.EMPTY : tracked.regions();
+    }
+
+    /**
+     * Computes the transition of a player moving to the specified position, without applying it.
+     * <p>
+     * This only queries the world if the player changed block or world. Players that are not yet
+     * tracked are treated as if they were already in the regions of the position.
+     * @param player the player
+     * @param world the world the player is moving in
+     * @param x the x coordinate the player is moving to
+     * @param y the y coordinate the player is moving to
+     * @param z the z coordinate the player is moving to
+     * @return the transition, or null if the player did not change block
+     * @see #apply(UUID, Transition)
+     */
+    public @Nullable Transition move(
+            UUID player, RegionisedWorld world, double x, double y, double z) {
+        final long position =
+                PackedPositions.pack((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+        final Tracked tracked = players.get(player);
+        if (tracked != null && tracked.world() == world && tracked.position() == position) {
+            return null;
+        }
+
+        final SortedRegionView to = world.query(x, y, z);
+        final SortedRegionView from = tracked == null ? to : tracked.regions();
+        return new Transition(
+                world, position, from, to, difference(to, from), difference(from, to));
+    }
+
+    /**
+     * Records that a player completed a transition from
+     * {@link #move(UUID, RegionisedWorld, double, double, double)}, once the movement was not
+     * cancelled.
+     *
+     * @param player the player
+     * @param transition the transition of the player
+     */
+    public void apply(UUID player, Transition transition) {
+        players.put(
+                player, new Tracked(transition.world(), transition.position(), transition.to()));
+    }
+
+    /**
+     * Stops tracking a player, such as when they disconnect.
+     *
+     * @param player the player
+     */
+    public void remove(UUID player) {
+        players.remove(player);
+    }
+
+    private static List<Region> difference(SortedRegionView regions, SortedRegionView other) {
+        if (regions == other) {
+            return List.of();
+        }
+
+        List<Region> difference = null;
+        for (int i = 0; i < regions.size(); i++) {
+            final Region region = regions.get(i);
+            if (!other.contains(region)) {
+                if (difference == null) {
+                    difference = new ArrayList<>();
+                }
+                difference.add(region);
+            }
+        }
+        return difference == null ? List.of() : List.copyOf(difference);
+    }
+}
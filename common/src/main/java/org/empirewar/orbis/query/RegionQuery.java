@@ -23,9 +23,12 @@
  */
 package org.empirewar.orbis.query;
 
+import net.kyori.adventure.util.TriState;
+
 import org.empirewar.orbis.area.Area;
 import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.region.Region;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3d;
 import org.joml.Vector3dc;
 
@@ -76,6 +79,26 @@ public sealed interface RegionQuery<R> permits RegionQuery.Position, RegionQuery
             default <FR> Result<Optional<FR>, Flag<FR>> query(Builder<FR> flag) {
                 return query(flag.build());
             }
+
+            /**
+             * Tests the value of a boolean flag.
+             * <p>
+             * This resolves the flag in the same way as {@link #query(Flag)}, but implementations
+             * avoid allocating a result, so it should be preferred for boolean flags on hot paths.
+             * @param flag the flag
+             * @param player the player to check member groups for, or null to ignore groups
+             * @return the value of the flag, or {@link TriState#NOT_SET} if it is not present
+             */
+            default TriState test(RegistryRegionFlag<Boolean> flag, @Nullable UUID player) {
+                final Builder<Boolean> builder = Flag.builder(flag);
+                if (player != null) {
+                    builder.player(player);
+                }
+                return query(builder)
+                        .result()
+                        .map(TriState::byBoolean)
+                        .orElse(TriState.NOT_SET);
+            }
         }
 
         sealed interface Builder<FR> permits RegionQueryFlagBuilder {
@@ -181,6 +204,17 @@ public sealed interface RegionQuery<R> permits RegionQuery.Position, RegionQuery
                     .build();
         }
 
+        @Override
+        default TriState test(RegistryRegionFlag<Boolean> flag, @Nullable UUID player) {
+            for (Region region : result()) {
+                final TriState state = region.test(flag, player);
+                if (state != TriState.NOT_SET) {
+                    return state;
+                }
+            }
+            return TriState.NOT_SET;
+        }
+
         static <Q extends RegionQuery<Set<Region>>>
                 Builder<FilterableRegionResult<Q>, Set<Region>, Q> builder() {
             BiFunction<Q, Set<Region>, FilterableRegionResult<Q>> function =
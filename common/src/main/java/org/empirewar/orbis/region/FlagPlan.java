@@ -0,0 +1,213 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.region;
+
+import net.kyori.adventure.util.TriState;
+
+import org.empirewar.orbis.flag.GroupedMutableRegionFlag;
+import org.empirewar.orbis.flag.MutableRegionFlag;
+import org.empirewar.orbis.member.FlagMemberGroup;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The compiled flags of a {@link Region}, including those inherited from its parents.
+ * <p>
+ * Plans are immutable and indexed by {@link MutableRegionFlag#id()}. Each flag maps to a chain of
+ * candidate flags in resolution order: the flag of the region itself, then the chains of its
+ * parents by priority. A chain ends at the first flag that is not grouped, as that flag always
+ * decides the result, so most lookups are a single array read.
+ * <p>
+ * Boolean flags with an id below 64 that do not depend on member groups are also packed into two
+ * masks, so testing them is a couple of bitwise operations.
+ *
+ * @param revision the revision of the region this was compiled at
+ * @param chains the chain of each flag id, or null if neither the region nor its parents have it
+ * @param decided the mask of boolean flags whose value does not depend on member groups
+ * @param values the mask of the values of the {@code decided} flags
+ */
+record FlagPlan(int revision, @Nullable Entry[][] chains, long decided, long values) {
+
+    static final FlagPlan EMPTY = new FlagPlan(-1, new Entry[0][], 0, 0);
+
+    /**
+     * A flag within a chain.
+     *
+     * @param owner the region that holds the flag
+     * @param value the value of the flag
+     * @param grouped whether the flag only applies to some member groups
+     * @param member whether the flag applies to members of the owner, if grouped
+     * @param nonMember whether the flag applies to non-members of the owner, if grouped
+     */
+    record Entry(
+            Region owner, Optional<?> value, boolean grouped, boolean member, boolean nonMember) {
+
+        private static Entry of(Region owner, MutableRegionFlag<?> flag) {
+            if (flag instanceof GroupedMutableRegionFlag<?> grouped) {
+                return new Entry(
+                        owner,
+                        Optional.of(flag.getValue()),
+                        true,
+                        grouped.groups().contains(FlagMemberGroup.MEMBER),
+                        grouped.groups().contains(FlagMemberGroup.NONMEMBER));
+            }
+            return new Entry(owner, Optional.of(flag.getValue()), false, true, true);
+        }
+    }
+
+    /**
+     * Resolves the value of a flag.
+     *
+     * @param id the flag id
+     * @param player the player to check member groups for, or null to ignore groups
+     * @return the value of the flag, or {@link Optional#empty()} if it is not present
+     */
+    Optional<?> resolve(int id, @Nullable UUID player) {
+        if (id >= chains.length) {
+            return Optional.empty();
+        }
+
+        final Entry[] chain = chains[id];
+        if (chain == null) {
+            return Optional.empty();
+        }
+
+        // Groups only apply when querying for a player
+        if (player == null) {
+            return chain[0].value();
+        }
+
+        for (Entry entry : chain) {
+            if (!entry.grouped()) {
+                return entry.value();
+            }
+
+            final boolean applies =
+                    entry.owner().isMember(player) ? entry.member() : entry.nonMember();
+            if (applies) {
+                return entry.value();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Tests the value of a boolean flag.
+     *
+     * @param id the flag id
+     * @param player the player to check member groups for, or null to ignore groups
+     * @return the value of the flag, or {@link TriState#NOT_SET} if it is not present
+     */
+    TriState test(int id, @Nullable UUID player) {
+        if (id < Long.SIZE) {
+            final long bit = 1L << id;
+            if ((decided & bit) != 0) {
+                return TriState.byBoolean((values & bit) != 0);
+            }
+        }
+
+        final Optional<?> value = resolve(id, player);
+        return value.isEmpty() ? TriState.NOT_SET : TriState.byBoolean((Boolean) value.get());
+    }
+
+    /**
+     * Compiles the flags of a region.
+     *
+     * @param revision the current revision of the region
+     * @param owner the region
+     * @param flags the flags of the region
+     * @param parents the parents of the region
+     * @return the compiled plan
+     */
+    static FlagPlan compile(
+            int revision,
+            Region owner,
+            Collection<MutableRegionFlag<?>> flags,
+            Collection<Region> parents) {
+        final FlagPlan[] inherited = parents.stream()
+                .sorted(Comparator.reverseOrder())
+                .map(Region::plan)
+                .toArray(FlagPlan[]::new);
+
+        int size = 0;
+        for (MutableRegionFlag<?> flag : flags) {
+            size = Math.max(size, flag.id() + 1);
+        }
+        for (FlagPlan plan : inherited) {
+            size = Math.max(size, plan.chains().length);
+        }
+
+        final MutableRegionFlag<?>[] own = new MutableRegionFlag<?>[size];
+        for (MutableRegionFlag<?> flag : flags) {
+            own[flag.id()] = flag;
+        }
+
+        final Entry[][] chains = new Entry[size][];
+        final List<Entry> chain = new ArrayList<>();
+        long decided = 0;
+        long values = 0;
+        for (int id = 0; id < size; id++) {
+            if (own[id] != null) {
+                chain.add(Entry.of(owner, own[id]));
+            }
+
+            for (FlagPlan plan : inherited) {
+                if (isComplete(chain)) {
+                    break;
+                }
+                if (id < plan.chains().length && plan.chains()[id] != null) {
+                    chain.addAll(Arrays.asList(plan.chains()[id]));
+                }
+            }
+
+            if (chain.isEmpty()) {
+                continue;
+            }
+
+            final Entry first = chain.getFirst();
+            if (id < Long.SIZE
+                    && !first.grouped()
+                    && first.value().orElse(null) instanceof Boolean value) {
+                decided |= 1L << id;
+                if (value) {
+                    values |= 1L << id;
+                }
+            }
+            chains[id] = chain.toArray(new Entry[0]);
+            chain.clear();
+        }
+        return new FlagPlan(revision, chains, decided, values);
+    }
+
+    private static boolean isComplete(List<Entry> chain) {
+        return !chain.isEmpty() && !chain.getLast().grouped();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.region;
+
+import org.empirewar.orbis.flag.MutableRegionFlag;
+import org.empirewar.orbis.flag.RegistryRegionFlag;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The flags of a region, stored in an array indexed by {@link RegistryRegionFlag#id()}.
+ * <p>
+ * The array is only as long as the highest id present, and is replaced whole on every change so
+ * that it can be read from any thread.
+ */
+final class FlagTable {
+
+    private static final MutableRegionFlag<?>[] EMPTY = new MutableRegionFlag<?>[0];
+
+    private volatile MutableRegionFlag<?>[] flags = EMPTY;
+    private int size;
+
+    @Nullable MutableRegionFlag<?> get(int id) {
+        final MutableRegionFlag<?>[] flags = this.flags;
+        return id < flags.length ? flags[id] : null;
+    }
+
+    boolean contains(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Puts a flag, replacing any flag with the same id.
+     *
+     * @param flag the flag
+     * @return the replaced flag, or null if there was none
+     */
+    synchronized @Nullable MutableRegionFlag<?> put(MutableRegionFlag<?> flag) {
+        final int id = flag.id();
+        final MutableRegionFlag<?>[] flags =
+                Arrays.copyOf(this.flags, Math.max(this.flags.length, id + 1));
+        final MutableRegionFlag<?> old = flags[id];
+        flags[id] = flag;
+        if (old == null) {
+            size++;
+        }
+        this.flags = flags;
+        return old;
+    }
+
+    /**
+     * Removes a flag.
+     *
+     * @param id the id of the flag
+     * @return the removed flag, or null if there was none
+     */
+    synchronized @Nullable MutableRegionFlag<?> remove(int id) {
+        final MutableRegionFlag<?> old = get(id);
+        if (old == null) {
+            return null;
+        }
+
+        // Trim trailing empty slots so the array stays as short as possible
+        final MutableRegionFlag<?>[] flags = this.flags.clone();
+        flags[id] = null;
+        int length = flags.length;
+        while (length > 0 && flags[length - 1] == null) {
+            length--;
+        }
+        size--;
+        this.flags = length == 0 ? EMPTY : Arrays.copyOf(flags, length);
+        return old;
+    }
+
+    /**
+     * Gets every flag in this table, in id order.
+     *
+     * @return the flags
+     */
+    List<MutableRegionFlag<?>> values() {
+        final MutableRegionFlag<?>[] flags = this.flags;
+        final List<MutableRegionFlag<?>> values = new ArrayList<>(size);
+        for (MutableRegionFlag<?> flag : flags) {
+            if (flag != null) {
+                values.add(flag);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return values().toString();
+    }
+}
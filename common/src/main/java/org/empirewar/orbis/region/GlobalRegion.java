@@ -45,7 +45,7 @@ public final class GlobalRegion extends Region {
                             MutableRegionFlag.TYPE_CODEC
                                     .listOf()
                                     .fieldOf("flags")
-                                    .forGetter(r -> r.flags.values().stream().toList()))
+                                    .forGetter(r -> r.flags.values()))
                     .apply(instance, GlobalRegion::new));
 
     public GlobalRegion(RegionisedWorldSet set) {
@@ -61,7 +61,7 @@ public final class GlobalRegion extends Region {
     private GlobalRegion(String name, List<MutableRegionFlag<?>> flags) {
         super(name, null);
         this.priority(1);
-        flags.forEach(mu -> this.flags.put(mu.key(), mu));
+        flags.forEach(this::putFlag);
     }
 
     @Override
@@ -29,25 +29,27 @@ import com.mojang.serialization.Codec;
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 
-import net.kyori.adventure.key.Key;
+import net.kyori.adventure.util.TriState;
 
 import org.empirewar.orbis.OrbisAPI;
 import org.empirewar.orbis.area.Area;
+import org.empirewar.orbis.area.EncompassingArea;
 import org.empirewar.orbis.flag.GroupedMutableRegionFlag;
 import org.empirewar.orbis.flag.MutableRegionFlag;
 import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.member.FlagMemberGroup;
 import org.empirewar.orbis.member.Member;
+import org.empirewar.orbis.member.PermissionMember;
+import org.empirewar.orbis.member.PlayerMember;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.registry.OrbisRegistries;
 import org.empirewar.orbis.registry.RegistryResolvable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -92,7 +94,7 @@ public sealed class Region
                             MutableRegionFlag.TYPE_CODEC
                                     .listOf()
                                     .fieldOf("flags")
-                                    .forGetter(r -> r.flags.values().stream().toList()),
+                                    .forGetter(r -> r.flags.values()),
                             Area.CODEC.fieldOf("area").forGetter(Region::area),
                             Codec.INT.fieldOf("priority").forGetter(Region::priority))
                     .apply(instance, Region::new));
@@ -100,16 +102,29 @@ public sealed class Region
     private final String name;
     private final Set<Region> parents;
     private final Set<Member> members;
-    protected final Map<Key, MutableRegionFlag<?>> flags;
+    // Indexes of the members, so that checking membership does not scan every member
+    private final Set<UUID> playerMembers = new HashSet<>();
+    private final List<PermissionMember> permissionMembers = new ArrayList<>(0);
+    protected final FlagTable flags;
     private final Area area;
+    private final Set<Region> children = new HashSet<>();
+    private final List<Runnable> updateListeners = new ArrayList<>(1);
+    private final Runnable flagListener = this::onChange;
 
     private int priority;
 
+    // Bumped on every change, so a plan compiled during a change is never used afterwards
+    private volatile int revision;
+    private volatile FlagPlan plan = FlagPlan.EMPTY;
+
+    // Set on every change to this region itself, so that only changed regions are saved
+    private volatile boolean dirty = true;
+
     public Region(String name, Area area) {
         this.name = name;
         this.parents = new HashSet<>();
         this.members = new HashSet<>();
-        this.flags = new HashMap<>();
+        this.flags = new FlagTable();
         this.area = area;
         this.priority = 2;
     }
@@ -127,11 +142,12 @@ public sealed class Region
             OrbisAPI.get()
                     .logger()
                     .info("Region {} waiting for region parent {}", name, parentName);
-            OrbisRegistries.REGIONS.resolve(parentName, this::addParent);
+            OrbisRegistries.REGIONS.resolve(parentName, this::addStoredParent);
         });
         this.members = new HashSet<>(members);
-        this.flags = new HashMap<>();
-        flags.forEach(mu -> this.flags.put(mu.key(), mu));
+        this.members.forEach(this::indexMember);
+        this.flags = new FlagTable();
+        flags.forEach(this::putFlag);
         this.area = area;
         this.priority = priority;
     }
@@ -171,7 +187,22 @@ public sealed class Region
             throw new IllegalArgumentException("Cannot have a parent loop!");
         }
 
-        parents.add(region);
+        if (parents.add(region)) {
+            region.children.add(this);
+            onChange();
+        }
+    }
+
+    /**
+     * Adds a parent that this region was stored with, such as once the parent is loaded.
+     * <p>
+     * This does not mark the region as changed, unless it already was.
+     * @param region the parent to add
+     */
+    public void addStoredParent(Region region) {
+        final boolean wasDirty = dirty;
+        addParent(region);
+        dirty = wasDirty;
     }
 
     /**
@@ -179,7 +210,10 @@ public sealed class Region
      * @param region the parent to remove
      */
     public void removeParent(Region region) {
-        parents.remove(region);
+        if (parents.remove(region)) {
+            region.children.remove(this);
+            onChange();
+        }
     }
 
     /**
@@ -190,12 +224,57 @@ public sealed class Region
         return Set.copyOf(members);
     }
 
+    /**
+     * Gets the players that are members of this region through a {@link PlayerMember}.
+     * @return the player ids
+     */
+    public Set<UUID> playerMembers() {
+        return Set.copyOf(playerMembers);
+    }
+
+    /**
+     * Gets whether the specified player is a member of this region.
+     * <p>
+     * Player members are checked first, and permission members are only checked if the player is
+     * not a player member.
+     * @param player the player
+     * @return true if the player is a member
+     */
+    public boolean isMember(UUID player) {
+        if (playerMembers.contains(player)) {
+            return true;
+        }
+
+        for (PermissionMember member : permissionMembers) {
+            if (member.checkMember(player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void addMember(Member member) {
-        members.add(member);
+        if (members.add(member)) {
+            indexMember(member);
+            onChange();
+        }
     }
 
     public void removeMember(Member member) {
-        members.remove(member);
+        if (members.remove(member)) {
+            switch (member) {
+                case PlayerMember player -> playerMembers.remove(player.playerId());
+                case PermissionMember permission -> permissionMembers.remove(permission);
+            }
+            onChange();
+        }
+    }
+
+    private void indexMember(Member member) {
+        switch (member) {
+            case PlayerMember player -> playerMembers.add(player.playerId());
+            case PermissionMember permission -> permissionMembers.add(permission);
+        }
     }
 
     /**
@@ -222,7 +301,66 @@ public sealed class Region
      */
     public void priority(int priority) {
         Preconditions.checkState(priority >= 0, "Priority must be positive");
+        if (this.priority == priority) return;
         this.priority = priority;
+        onChange();
+    }
+
+    /**
+     * Adds a listener that is run whenever this region changes.
+     * <p>
+     * This covers changes to the priority, flags, members and parents of this region, as well as
+     * any change to a parent, as those are inherited. Changes to the area are notified by the area.
+     * @param listener the listener to add
+     */
+    public void addUpdateListener(Runnable listener) {
+        this.updateListeners.add(listener);
+    }
+
+    public void removeUpdateListener(Runnable listener) {
+        this.updateListeners.remove(listener);
+    }
+
+    /**
+     * Gets whether this region has changed since it was last saved.
+     * <p>
+     * This covers changes to the priority, flags, members, parents and area of this region, but
+     * not changes to a parent, as those are saved with the parent.
+     * @return true if this region should be saved
+     * @see #clearDirty()
+     */
+    public boolean isDirty() {
+        return dirty || (area instanceof EncompassingArea encompassing && encompassing.isDirty());
+    }
+
+    /**
+     * Marks this region as saved.
+     */
+    public void clearDirty() {
+        dirty = false;
+        if (area instanceof EncompassingArea encompassing) {
+            encompassing.clearDirty();
+        }
+    }
+
+    /**
+     * Marks this region as changed, such as when saving it failed.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    private void onChange() {
+        dirty = true;
+        fireUpdate();
+    }
+
+    private void fireUpdate() {
+        revision++;
+        // Copy to allow listeners to modify the listeners
+        List.copyOf(updateListeners).forEach(Runnable::run);
+        // Children inherit our flags, so they change too
+        List.copyOf(children).forEach(Region::fireUpdate);
     }
 
     /**
@@ -234,7 +372,7 @@ public sealed class Region
      */
     public <T> MutableRegionFlag<T> addFlag(RegistryRegionFlag<T> flag) {
         final MutableRegionFlag<T> mutable = flag.asMutable();
-        flags.put(flag.key(), mutable);
+        putFlag(mutable);
         return mutable;
     }
 
@@ -247,8 +385,8 @@ public sealed class Region
     public <T> GroupedMutableRegionFlag<T> addGroupedFlag(
             RegistryRegionFlag<T> flag, Set<FlagMemberGroup> groups) {
         final GroupedMutableRegionFlag<T> grouped = flag.asGrouped();
-        flags.put(flag.key(), grouped);
         groups.forEach(grouped::addGroup);
+        putFlag(grouped);
         return grouped;
     }
 
@@ -258,15 +396,34 @@ public sealed class Region
      * @return true if flag existed and was removed
      */
     public boolean removeFlag(RegistryRegionFlag<?> flag) {
-        return flags.remove(flag.key()) == null;
+        final MutableRegionFlag<?> removed = flags.remove(flag.id());
+        if (removed == null) {
+            return false;
+        }
+        removed.removeUpdateListener(flagListener);
+        onChange();
+        return true;
+    }
+
+    /**
+     * Puts a flag into this region, replacing any flag with the same key.
+     * @param flag the flag
+     */
+    protected void putFlag(MutableRegionFlag<?> flag) {
+        final MutableRegionFlag<?> old = flags.put(flag);
+        if (old != null) {
+            old.removeUpdateListener(flagListener);
+        }
+        flag.addUpdateListener(flagListener);
+        onChange();
     }
 
     public boolean hasFlag(RegistryRegionFlag<?> flag) {
-        return flags.containsKey(flag.key());
+        return flags.contains(flag.id());
     }
 
     public <T> Optional<MutableRegionFlag<T>> getFlag(RegistryRegionFlag<T> flag) {
-        return Optional.ofNullable((MutableRegionFlag<T>) flags.get(flag.key()));
+        return Optional.ofNullable((MutableRegionFlag<T>) flags.get(flag.id()));
     }
 
     /**
@@ -284,41 +441,44 @@ public sealed class Region
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <FR> RegionQuery.Result<Optional<FR>, RegionQuery.Flag<FR>> query(
             RegionQuery.Flag<FR> flag) {
-        final Optional<MutableRegionFlag<FR>> foundFlag = getFlag(flag.flag());
-        final Optional<UUID> player = flag.player();
-        final Member playerMember = player.flatMap(uuid -> members.stream()
-                        .filter(member -> member.checkMember(uuid))
-                        .findAny())
-                .orElse(null);
-
-        Optional<FR> foundValue;
-        foundValue = foundFlag
-                .flatMap(mutableRegionFlag -> {
-                    // TODO add test case
-                    if (player.isPresent()
-                            && mutableRegionFlag instanceof GroupedMutableRegionFlag<?> group) {
-                        if (playerMember == null
-                                && !group.groups().contains(FlagMemberGroup.NONMEMBER)) {
-                            return Optional.empty();
-                        } else if (playerMember != null
-                                && !group.groups().contains(FlagMemberGroup.MEMBER)) {
-                            return Optional.empty();
-                        }
-                    }
-
-                    return Optional.of(mutableRegionFlag.getValue());
-                })
-                .or(() -> parents.stream()
-                        .sorted(Comparator.reverseOrder())
-                        .map(r -> r.query(flag))
-                        .map(RegionQuery.Result::result)
-                        .findAny()
-                        .orElse(Optional.empty()));
+        final Optional<FR> foundValue = (Optional<FR>)
+                plan().resolve(flag.flag().id(), flag.player().orElse(null));
         return flag.resultBuilder().query(flag).result(foundValue).build();
     }
 
+    /**
+     * Tests the value of a boolean flag in this region, including values inherited from parents.
+     * <p>
+     * This resolves the flag in the same way as {@link #query(RegionQuery.Flag)}, without
+     * allocating.
+     * @param flag the flag
+     * @param player the player to check member groups for, or null to ignore groups
+     * @return the value of the flag, or {@link TriState#NOT_SET} if neither this region nor its
+     *         parents have it
+     */
+    @Override
+    public TriState test(RegistryRegionFlag<Boolean> flag, @Nullable UUID player) {
+        return plan().test(flag.id(), player);
+    }
+
+    /**
+     * Gets the compiled flags of this region, compiling them again if this region or any of its
+     * parents changed since they were last compiled.
+     * @return the compiled flags
+     */
+    FlagPlan plan() {
+        final int revision = this.revision;
+        FlagPlan plan = this.plan;
+        if (plan.revision() != revision) {
+            plan = FlagPlan.compile(revision, this, flags.values(), parents);
+            this.plan = plan;
+        }
+        return plan;
+    }
+
     /**
      * Gets whether this region is a "global region".
      * <p>
@@ -53,6 +53,15 @@ public sealed interface OrbisRegistry<T, K> extends Iterable<T>, Keyed
 
     void setLifecycle(RegistryLifecycle lifecycle);
 
+    /**
+     * Adds a listener that is notified when entries are registered or unregistered.
+     *
+     * @param listener the listener
+     */
+    void addListener(RegistryListener<T> listener);
+
+    void removeListener(RegistryListener<T> listener);
+
     static <V, K, T extends V> T register(OrbisRegistry<V, K> registry, K key, T entry) {
         registry.register(key, entry);
         return entry;
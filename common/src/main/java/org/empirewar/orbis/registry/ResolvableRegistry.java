@@ -25,6 +25,7 @@ package org.empirewar.orbis.registry;
 
 import org.empirewar.orbis.registry.lifecycle.RegistryLifecycle;
 
+import java.util.Set;
 import java.util.function.Consumer;
 
 public non-sealed interface ResolvableRegistry<T extends RegistryResolvable<K>, K>
@@ -57,4 +58,11 @@ public non-sealed interface ResolvableRegistry<T extends RegistryResolvable<K>,
     default void resolve(K key, Consumer<T> entry) {
         resolve(key, entry, getLifecycle());
     }
+
+    /**
+     * Gets the keys of the entries that consumers are waiting to resolve.
+     *
+     * @return the keys of the pending entries
+     */
+    Set<K> pendingKeys();
 }
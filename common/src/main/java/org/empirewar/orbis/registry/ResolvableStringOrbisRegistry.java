@@ -80,6 +80,11 @@ public class ResolvableStringOrbisRegistry<T extends RegistryResolvable<String>>
         }
     }
 
+    @Override
+    public Set<String> pendingKeys() {
+        return Set.copyOf(pending.keySet());
+    }
+
     @Override
     public void setLifecycle(RegistryLifecycle lifecycle) {
         super.setLifecycle(lifecycle);
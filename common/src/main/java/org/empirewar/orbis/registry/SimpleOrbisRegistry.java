@@ -36,6 +36,7 @@ public abstract non-sealed class SimpleOrbisRegistry<T, K> implements OrbisRegis
     protected final Key registryKey;
     protected final Map<K, T> entries = new HashMap<>();
     protected RegistryLifecycle lifecycle = RegistryLifecycles.loading();
+    private final List<RegistryListener<T>> listeners = new ArrayList<>(0);
 
     public SimpleOrbisRegistry(Key registryKey) {
         this.registryKey = registryKey;
@@ -54,6 +55,7 @@ public abstract non-sealed class SimpleOrbisRegistry<T, K> implements OrbisRegis
         if (key == null) throw new IllegalArgumentException("Key cannot be null");
         if (entry == null) throw new IllegalArgumentException("Entry cannot be null");
         entries.put(key, entry);
+        List.copyOf(listeners).forEach(listener -> listener.onRegister(entry));
         return entry;
     }
 
@@ -62,6 +64,9 @@ public abstract non-sealed class SimpleOrbisRegistry<T, K> implements OrbisRegis
         if (lifecycle == RegistryLifecycles.frozen())
             throw new IllegalStateException("Registry is frozen");
         T entry = entries.remove(key);
+        if (entry != null) {
+            List.copyOf(listeners).forEach(listener -> listener.onUnregister(entry));
+        }
         return Optional.ofNullable(entry);
     }
 
@@ -114,6 +119,16 @@ public abstract non-sealed class SimpleOrbisRegistry<T, K> implements OrbisRegis
         this.lifecycle = lifecycle;
     }
 
+    @Override
+    public void addListener(RegistryListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(RegistryListener<T> listener) {
+        listeners.remove(listener);
+    }
+
     @Override
     public String toString() {
         return "Registry[" + this.registryKey + "]";
@@ -0,0 +1,256 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of JSON trees.
+ * <p>
+ * Each value is a tag byte followed by its payload. Integers are zigzag varints, and each string
+ * is written once per file, with later uses referring back to it by index, as keys such as flag
+ * names repeat within a region.
+ */
+final class BinaryJson {
+
+    private static final int MAGIC = 0x4F52424A; // ORBJ
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INTEGER = 3;
+    private static final int DOUBLE = 4;
+    private static final int STRING = 5;
+    private static final int ARRAY = 6;
+    private static final int OBJECT = 7;
+
+    private BinaryJson() {}
+
+    static byte[] encode(JsonElement element) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            new Writer(out).write(element);
+        } catch (IOException e) {
+            // Not thrown when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JsonElement decode(byte[] data) throws IOException {
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary region file");
+        }
+
+        final int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary region format " + version);
+        }
+        return new Reader(in).read();
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(JsonElement element) throws IOException {
+            switch (element) {
+                case JsonObject object -> {
+                    out.writeByte(OBJECT);
+                    writeVarLong(object.size());
+                    for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                        writeString(entry.getKey());
+                        write(entry.getValue());
+                    }
+                }
+                case JsonArray array -> {
+                    out.writeByte(ARRAY);
+                    writeVarLong(array.size());
+                    for (JsonElement value : array) {
+                        write(value);
+                    }
+                }
+                case JsonPrimitive primitive when primitive.isBoolean() ->
+                    out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+                case JsonPrimitive primitive when primitive.isString() -> {
+                    out.writeByte(STRING);
+                    writeString(primitive.getAsString());
+                }
+                case JsonPrimitive primitive -> writeNumber(primitive.getAsNumber());
+                default -> out.writeByte(NULL);
+            }
+        }
+
+        private void writeNumber(Number number) throws IOException {
+            if (number instanceof Integer
+                    || number instanceof Long
+                    || number instanceof Short
+                    || number instanceof Byte) {
+                out.writeByte(INTEGER);
+                writeVarLong(zigzag(number.longValue()));
+                return;
+            }
+
+            // Whole doubles, such as a radius of 5.0, are stored as integers too
+            final double value = number.doubleValue();
+            final long whole = (long) value;
+            if (whole == value
+                    && Math.abs(value) < 0x1p53
+                    // Keep negative zero
+                    && Double.doubleToRawLongBits(value) != Long.MIN_VALUE) {
+                out.writeByte(INTEGER);
+                writeVarLong(zigzag(whole));
+            } else {
+                out.writeByte(DOUBLE);
+                out.writeDouble(value);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            final Integer index = strings.get(value);
+            if (index != null) {
+                writeVarLong(index + 1);
+                return;
+            }
+
+            strings.put(value, strings.size());
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(0);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private JsonElement read() throws IOException {
+            final int tag = in.readUnsignedByte();
+            return switch (tag) {
+                case NULL -> JsonNull.INSTANCE;
+                case FALSE -> new JsonPrimitive(false);
+                case TRUE -> new JsonPrimitive(true);
+                case INTEGER -> {
+                    final long zigzag = readVarLong();
+                    yield new JsonPrimitive((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case DOUBLE -> new JsonPrimitive(in.readDouble());
+                case STRING -> new JsonPrimitive(readString());
+                case ARRAY -> {
+                    final long size = readVarLong();
+                    final JsonArray array = new JsonArray();
+                    for (long i = 0; i < size; i++) {
+                        array.add(read());
+                    }
+                    yield array;
+                }
+                case OBJECT -> {
+                    final long size = readVarLong();
+                    final JsonObject object = new JsonObject();
+                    for (long i = 0; i < size; i++) {
+                        final String key = readString();
+                        object.add(key, read());
+                    }
+                    yield object;
+                }
+                default -> throw new IOException("Unknown tag " + tag);
+            };
+        }
+
+        private String readString() throws IOException {
+            final long index = readVarLong();
+            if (index != 0) {
+                if (index > strings.size()) {
+                    throw new IOException("Unknown string " + index);
+                }
+                return strings.get((int) index - 1);
+            }
+
+            final long length = readVarLong();
+            if (length > in.available()) {
+                throw new IOException("String longer than the data");
+            }
+            final byte[] bytes = new byte[(int) length];
+            in.readFully(bytes);
+            final String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint too long");
+        }
+    }
+}
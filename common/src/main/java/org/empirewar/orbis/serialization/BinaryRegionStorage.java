@@ -0,0 +1,92 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonElement;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Stores each region in a compact binary file, encoded by {@link BinaryJson}.
+ * <p>
+ * The data is the same as {@link JsonRegionStorage} stores, including its data version. A JSON
+ * file placed in the folder, such as one edited by hand, is imported: it is read instead of the
+ * binary file of the same name, and is replaced by a binary file when read.
+ */
+public final class BinaryRegionStorage implements RegionStorage {
+
+    static final String EXTENSION = ".dat";
+
+    private final Path folder;
+
+    public BinaryRegionStorage(Path folder) {
+        this.folder = folder;
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        final TreeSet<String> names = new TreeSet<>(JsonRegionStorage.list(folder, EXTENSION));
+        names.addAll(JsonRegionStorage.list(folder, JsonRegionStorage.EXTENSION));
+        return List.copyOf(names);
+    }
+
+    @Override
+    public @Nullable JsonElement read(String name) throws IOException {
+        final Path json = folder.resolve(name + JsonRegionStorage.EXTENSION);
+        final JsonElement imported = JsonRegionStorage.read(json);
+        if (imported != null) {
+            if (imported.isJsonObject()) {
+                write(name, imported);
+            }
+            return imported;
+        }
+
+        try {
+            return BinaryJson.decode(Files.readAllBytes(folder.resolve(name + EXTENSION)));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void write(String name, JsonElement data) throws IOException {
+        Files.createDirectories(folder);
+        RegionWriteQueue.writeAtomically(folder.resolve(name + EXTENSION), BinaryJson.encode(data));
+        // Anything imported is now stored in the binary file
+        Files.deleteIfExists(folder.resolve(name + JsonRegionStorage.EXTENSION));
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(folder.resolve(name + EXTENSION));
+        Files.deleteIfExists(folder.resolve(name + JsonRegionStorage.EXTENSION));
+    }
+}
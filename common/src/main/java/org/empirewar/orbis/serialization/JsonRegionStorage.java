@@ -0,0 +1,113 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores each region in a pretty-printed JSON file.
+ */
+public final class JsonRegionStorage implements RegionStorage {
+
+    static final String EXTENSION = ".json";
+
+    private final Path folder;
+
+    public JsonRegionStorage(Path folder) {
+        this.folder = folder;
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        return list(folder, EXTENSION);
+    }
+
+    @Override
+    public @Nullable JsonElement read(String name) throws IOException {
+        return read(folder.resolve(name + EXTENSION));
+    }
+
+    @Override
+    public RegionReader.@Nullable PendingRegion readRegion(String name) throws IOException {
+        final Path file = folder.resolve(name + EXTENSION);
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file))) {
+            final RegionReader.PendingRegion region = RegionReader.read(reader);
+            if (region != null) {
+                return region;
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        // Older data is read again as a tree, to be updated by the data fixer
+        return RegionReader.fromTree(read(file));
+    }
+
+    @Override
+    public void write(String name, JsonElement data) throws IOException {
+        Files.createDirectories(folder);
+        RegionWriteQueue.writeAtomically(
+                folder.resolve(name + EXTENSION),
+                StaticGsonProvider.GSON.toJson(data).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        Files.deleteIfExists(folder.resolve(name + EXTENSION));
+    }
+
+    static @Nullable JsonElement read(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file)) {
+            return JsonParser.parseReader(reader);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    static List<String> list(Path folder, String extension) throws IOException {
+        if (!Files.isDirectory(folder)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(extension))
+                    .map(name -> name.substring(0, name.length() - extension.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
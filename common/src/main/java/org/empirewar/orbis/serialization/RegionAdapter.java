@@ -26,7 +26,6 @@ package org.empirewar.orbis.serialization;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
@@ -39,17 +38,19 @@ import org.empirewar.orbis.datafixer.TypeReferences;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.region.RegionType;
 import org.empirewar.orbis.registry.OrbisRegistries;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
 import java.util.Optional;
 
 public final class RegionAdapter implements JsonSerializer<Region>, JsonDeserializer<Region> {
 
+    private static final Codec<Region> DISPATCH_CODEC =
+            OrbisRegistries.REGION_TYPE.getCodec().dispatch(Region::getType, RegionType::codec);
+
     @Override
     public JsonElement serialize(Region region, Type typeOfSrc, JsonSerializationContext context) {
-        final Codec<Region> dispatch =
-                OrbisRegistries.REGION_TYPE.getCodec().dispatch(Region::getType, RegionType::codec);
-        final Optional<JsonElement> result = dispatch.encodeStart(JsonOps.INSTANCE, region)
+        final Optional<JsonElement> result = DISPATCH_CODEC.encodeStart(JsonOps.INSTANCE, region)
                 .resultOrPartial(
                         msg -> OrbisAPI.get().logger().error("Error saving region: {}", msg));
         return result.map(OrbisDataFixes::updateFixerVersion).orElse(null);
@@ -58,12 +59,30 @@ public final class RegionAdapter implements JsonSerializer<Region>, JsonDeserial
     @Override
     public Region deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
             throws JsonParseException {
-        final JsonObject object = json.getAsJsonObject();
-        final JsonElement fixed = OrbisDataFixes.fix(TypeReferences.REGION, object);
+        return decode(fix(json));
+    }
+
+    /**
+     * Updates serialised region data to the current version.
+     * <p>
+     * This does not touch any registry, so it is safe to call from any thread.
+     * @param json the serialised region
+     * @return the updated region data
+     */
+    public static JsonElement fix(JsonElement json) {
+        return OrbisDataFixes.fix(TypeReferences.REGION, json.getAsJsonObject());
+    }
 
-        final Codec<Region> dispatch =
-                OrbisRegistries.REGION_TYPE.getCodec().dispatch(Region::getType, RegionType::codec);
-        final Optional<Region> result = dispatch.parse(JsonOps.INSTANCE, fixed)
+    /**
+     * Decodes region data that is already at the current version.
+     * <p>
+     * Decoding resolves the parents of the region through {@link OrbisRegistries#REGIONS}, so this
+     * should be called from the thread that registers regions.
+     * @param fixed the updated region data
+     * @return the region, or null if it could not be decoded
+     */
+    public static @Nullable Region decode(JsonElement fixed) {
+        final Optional<Region> result = DISPATCH_CODEC.parse(JsonOps.INSTANCE, fixed)
                 .resultOrPartial(
                         msg -> OrbisAPI.get().logger().error("Error loading region: {}", msg));
         return result.orElse(null);
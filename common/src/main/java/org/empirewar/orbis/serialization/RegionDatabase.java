@@ -0,0 +1,351 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonElement;
+
+import org.empirewar.orbis.OrbisAPI;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+/**
+ * Stores every region in a single append-only file, which is memory-mapped for reading.
+ * <p>
+ * Each record holds the name of a region and its data, encoded by {@link BinaryJson}, or a
+ * tombstone if the region was deleted. Writing a region appends a new record, and an index from
+ * name to the offset of the latest record is built when the file is opened, so reading a region
+ * does not read any other. Old records are dropped by compacting the file when it is opened, once
+ * they take up most of it. As with {@link BinaryRegionStorage}, JSON files placed in the folder
+ * are imported.
+ * <p>
+ * A record is the length of the name, the name, the length of the data (or -1 for a tombstone), a
+ * CRC32 of the name and data, and then the data. A record cut short by a crash is discarded when
+ * the file is opened.
+ */
+public final class RegionDatabase implements RegionStorage {
+
+    static final String FILE_NAME = "regions.db";
+
+    private static final int MAGIC = 0x4F524442; // ORDB
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 5;
+    private static final int RECORD_HEADER_SIZE = 10;
+    private static final int TOMBSTONE = -1;
+    // Compact once old records take up at least this much, and most of the file
+    private static final long COMPACT_THRESHOLD = 64 * 1024;
+
+    private final Path folder;
+    private final Path file;
+    private final Map<String, Entry> index = new HashMap<>();
+
+    private @Nullable FileChannel channel;
+    private @Nullable MappedByteBuffer mapped;
+    private long size;
+    private long garbage;
+
+    public RegionDatabase(Path folder) {
+        this.folder = folder;
+        this.file = folder.resolve(FILE_NAME);
+    }
+
+    @Override
+    public List<String> list() throws IOException {
+        final TreeSet<String> names = new TreeSet<>();
+        synchronized (this) {
+            open();
+            names.addAll(index.keySet());
+        }
+        names.addAll(JsonRegionStorage.list(folder, JsonRegionStorage.EXTENSION));
+        return List.copyOf(names);
+    }
+
+    @Override
+    public @Nullable JsonElement read(String name) throws IOException {
+        final JsonElement imported =
+                JsonRegionStorage.read(folder.resolve(name + JsonRegionStorage.EXTENSION));
+        if (imported != null) {
+            if (imported.isJsonObject()) {
+                write(name, imported);
+            }
+            return imported;
+        }
+
+        final MappedByteBuffer buffer;
+        final Entry entry;
+        synchronized (this) {
+            open();
+            entry = index.get(name);
+            if (entry == null) return null;
+            // Records appended since the file was mapped need a new mapping
+            if (entry.end() > mapped.capacity()) {
+                map();
+            }
+            buffer = mapped;
+        }
+
+        // Decoding happens outside the lock, so that regions can be read in parallel
+        final byte[] data = new byte[entry.dataLength()];
+        buffer.get(Math.toIntExact(entry.dataOffset()), data);
+        return BinaryJson.decode(data);
+    }
+
+    @Override
+    public void write(String name, JsonElement data) throws IOException {
+        append(name, BinaryJson.encode(data));
+        // Anything imported is now stored in the database
+        Files.deleteIfExists(folder.resolve(name + JsonRegionStorage.EXTENSION));
+    }
+
+    @Override
+    public void delete(String name) throws IOException {
+        synchronized (this) {
+            open();
+            if (index.containsKey(name)) {
+                append(name, null);
+            }
+        }
+        Files.deleteIfExists(folder.resolve(name + JsonRegionStorage.EXTENSION));
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = null;
+        mapped = null;
+        index.clear();
+    }
+
+    private synchronized void append(String name, byte @Nullable [] data) throws IOException {
+        open();
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Region name is too long: " + name);
+        }
+
+        final int dataLength = data == null ? 0 : data.length;
+        final ByteBuffer record =
+                ByteBuffer.allocate(RECORD_HEADER_SIZE + nameBytes.length + dataLength);
+        record.putShort((short) nameBytes.length)
+                .put(nameBytes)
+                .putInt(data == null ? TOMBSTONE : dataLength)
+                .putInt(checksum(
+                        ByteBuffer.wrap(nameBytes), data == null ? null : ByteBuffer.wrap(data)));
+        if (data != null) {
+            record.put(data);
+        }
+        record.flip();
+
+        final long start = size;
+        while (record.hasRemaining()) {
+            channel.write(record, start + record.position());
+        }
+        channel.force(false);
+        size += record.capacity();
+
+        final Entry previous = data == null
+                ? index.remove(name)
+                : index.put(name, new Entry(start, record.capacity(), nameBytes.length));
+        if (previous != null) {
+            garbage += previous.size();
+        }
+        if (data == null) {
+            garbage += record.capacity();
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null) return;
+        openAndScan();
+        if (garbage >= COMPACT_THRESHOLD && garbage * 2 > size) {
+            compact();
+        }
+    }
+
+    private void openAndScan() throws IOException {
+        Files.createDirectories(folder);
+        channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .put((byte) FORMAT_VERSION)
+                    .flip();
+            channel.write(header, 0);
+        }
+        map();
+
+        final ByteBuffer buffer = mapped.duplicate();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            close();
+            throw new IOException("Not a region database: " + file);
+        }
+
+        final int version = Byte.toUnsignedInt(buffer.get());
+        if (version != FORMAT_VERSION) {
+            close();
+            throw new IOException("Unsupported region database format " + version);
+        }
+
+        index.clear();
+        garbage = 0;
+        long position = HEADER_SIZE;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            final int nameLength = Short.toUnsignedInt(buffer.getShort());
+            if (buffer.remaining() < nameLength + RECORD_HEADER_SIZE - 2) break;
+            final ByteBuffer name = buffer.slice(buffer.position(), nameLength);
+            buffer.position(buffer.position() + nameLength);
+            final int dataLength = buffer.getInt();
+            final int checksum = buffer.getInt();
+            final boolean tombstone = dataLength == TOMBSTONE;
+            if (!tombstone && (dataLength < 0 || buffer.remaining() < dataLength)) break;
+            final ByteBuffer data = tombstone ? null : buffer.slice(buffer.position(), dataLength);
+            final ByteBuffer checked = data == null ? null : data.duplicate();
+            if (checksum(name.duplicate(), checked) != checksum) break;
+            if (!tombstone) {
+                buffer.position(buffer.position() + dataLength);
+            }
+
+            final int recordSize = RECORD_HEADER_SIZE + nameLength + (tombstone ? 0 : dataLength);
+            final String key = StandardCharsets.UTF_8.decode(name).toString();
+            final Entry previous = tombstone
+                    ? index.remove(key)
+                    : index.put(key, new Entry(position, recordSize, nameLength));
+            if (previous != null) {
+                garbage += previous.size();
+            }
+            if (tombstone) {
+                garbage += recordSize;
+            }
+            position += recordSize;
+        }
+
+        size = position;
+        if (size < channel.size()) {
+            OrbisAPI.get()
+                    .logger()
+                    .warn("Discarding {} bytes of incomplete records", channel.size() - size);
+            channel.truncate(size);
+            map();
+        }
+    }
+
+    private void map() throws IOException {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    /**
+     * Rewrites the file with only the latest record of each region.
+     */
+    private void compact() throws IOException {
+        final Path temp = file.resolveSibling(FILE_NAME + ".compact");
+        try (FileChannel out = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            out.write(mapped.slice(0, HEADER_SIZE));
+            final List<Entry> entries = index.values().stream()
+                    .sorted(Comparator.comparingLong(Entry::start))
+                    .toList();
+            for (Entry entry : entries) {
+                final ByteBuffer record =
+                        mapped.slice(Math.toIntExact(entry.start()), entry.size());
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(true);
+        }
+
+        final long before = size;
+        close();
+        try {
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Such as on systems that do not allow replacing a mapped file, so compact next time
+            OrbisAPI.get().logger().warn("Could not compact the region database", e);
+            Files.deleteIfExists(temp);
+        }
+
+        openAndScan();
+        OrbisAPI.get()
+                .logger()
+                .info("Compacted the region database from {} to {} bytes", before, size);
+    }
+
+    private static int checksum(ByteBuffer name, @Nullable ByteBuffer data) {
+        final CRC32 crc = new CRC32();
+        crc.update(name);
+        if (data != null) {
+            crc.update(data);
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The latest record of a region.
+     *
+     * @param start the offset of the record in the file
+     * @param size the size of the record
+     * @param nameLength the length of the encoded name of the region
+     */
+    private record Entry(long start, int size, int nameLength) {
+
+        long dataOffset() {
+            return start + RECORD_HEADER_SIZE + nameLength;
+        }
+
+        int dataLength() {
+            return size - RECORD_HEADER_SIZE - nameLength;
+        }
+
+        long end() {
+            return start + size;
+        }
+    }
+}
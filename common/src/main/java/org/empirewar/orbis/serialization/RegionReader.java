@@ -0,0 +1,350 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.mojang.serialization.JsonOps;
+
+import net.kyori.adventure.key.Key;
+
+import org.empirewar.orbis.OrbisAPI;
+import org.empirewar.orbis.area.Area;
+import org.empirewar.orbis.area.AreaType;
+import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.area.PolygonArea;
+import org.empirewar.orbis.area.PolyhedralArea;
+import org.empirewar.orbis.area.SphericalArea;
+import org.empirewar.orbis.datafixer.Schemas;
+import org.empirewar.orbis.flag.RegionFlagType;
+import org.empirewar.orbis.flag.RegistryRegionFlag;
+import org.empirewar.orbis.member.FlagMemberGroup;
+import org.empirewar.orbis.member.Member;
+import org.empirewar.orbis.member.MemberType;
+import org.empirewar.orbis.member.PermissionMember;
+import org.empirewar.orbis.member.PlayerMember;
+import org.empirewar.orbis.region.GlobalRegion;
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.region.RegionType;
+import org.empirewar.orbis.registry.KeyOrbisRegistry;
+import org.empirewar.orbis.registry.OrbisRegistries;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decodes regions straight from a {@link JsonReader}, without building a tree of the data first.
+ * <p>
+ * Only data at the current version is read this way, which is what is stored almost all of the
+ * time. Older data, or data this reader does not understand, is read again as a tree, updated by
+ * {@link RegionAdapter#fix(JsonElement)} and decoded by the codecs, which also report any errors.
+ */
+public final class RegionReader {
+
+    private RegionReader() {}
+
+    /**
+     * A region that has been read, but whose parents have not been resolved yet.
+     */
+    @FunctionalInterface
+    public interface PendingRegion {
+
+        /**
+         * Finishes decoding the region.
+         * <p>
+         * This resolves the parents of the region through {@link OrbisRegistries#REGIONS}, so it
+         * should be called from the thread that registers regions.
+         * @return the region, or null if it could not be decoded
+         */
+        @Nullable Region finish();
+    }
+
+    /**
+     * Reads a region at the current version.
+     * <p>
+     * This reads the flag, member and area registries, which do not change while regions are
+     * loaded, so it is safe to call from any thread.
+     * @param reader the reader, positioned at the region object
+     * @return the region, or null if it must be read as a tree instead
+     */
+    static @Nullable PendingRegion read(JsonReader reader) {
+        try {
+            return readRegion(reader);
+        } catch (IOException | RuntimeException e) {
+            // Left to the codecs, which explain what is wrong with the data
+            return null;
+        }
+    }
+
+    /**
+     * Updates and decodes a region that was read as a tree.
+     * @param json the stored data, which may be at an older version
+     * @return the region, or null if the data is not a region
+     */
+    static @Nullable PendingRegion fromTree(@Nullable JsonElement json) {
+        if (json == null || !json.isJsonObject()) return null;
+        final JsonElement fixed = RegionAdapter.fix(json);
+        return () -> RegionAdapter.decode(fixed);
+    }
+
+    private static @Nullable PendingRegion readRegion(JsonReader reader) throws IOException {
+        // Objects without a version are at the first version, as in OrbisDataFixes
+        int version = 1;
+        String type = null;
+        String name = null;
+        List<String> parents = null;
+        List<Member> members = null;
+        List<FlagEntry<?>> flags = null;
+        Area area = null;
+        Integer priority = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "data_version" -> version = reader.nextInt();
+                case "type" -> type = reader.nextString();
+                case "name" -> name = reader.nextString();
+                case "parents" -> parents = readParents(reader);
+                case "members" -> members = readMembers(reader);
+                case "flags" -> flags = readFlags(reader);
+                case "area" -> area = readArea(reader);
+                case "priority" -> priority = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        // The version is usually written last, so older data is only noticed here
+        if (version != Schemas.CURRENT_VERSION) return null;
+
+        final RegionType<?> regionType = lookup(OrbisRegistries.REGION_TYPE, type);
+        final Region region;
+        final List<String> parentNames;
+        if (regionType == RegionType.GLOBAL) {
+            region = new GlobalRegion(Objects.requireNonNull(name, "name"));
+            parentNames = List.of();
+        } else if (regionType == RegionType.NORMAL) {
+            region = new Region(
+                    Objects.requireNonNull(name, "name"), Objects.requireNonNull(area, "area"));
+            Objects.requireNonNull(members, "members").forEach(region::addMember);
+            region.priority(Objects.requireNonNull(priority, "priority"));
+            parentNames = Objects.requireNonNull(parents, "parents");
+        } else {
+            return null;
+        }
+        Objects.requireNonNull(flags, "flags").forEach(flag -> flag.addTo(region));
+
+        return () -> {
+            for (String parentName : parentNames) {
+                OrbisAPI.get()
+                        .logger()
+                        .info("Region {} waiting for region parent {}", region.name(), parentName);
+                OrbisRegistries.REGIONS.resolve(parentName, region::addStoredParent);
+            }
+            return region;
+        };
+    }
+
+    private static List<String> readParents(JsonReader reader) throws IOException {
+        final List<String> parents = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            parents.add(reader.nextString());
+        }
+        reader.endArray();
+        return parents;
+    }
+
+    private static List<Member> readMembers(JsonReader reader) throws IOException {
+        final List<Member> members = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String type = null;
+            String playerId = null;
+            String permission = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = reader.nextString();
+                    case "player_id" -> playerId = reader.nextString();
+                    case "permission" -> permission = reader.nextString();
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            final MemberType<?> memberType = lookup(OrbisRegistries.MEMBER_TYPE, type);
+            if (memberType == MemberType.PLAYER) {
+                members.add(new PlayerMember(
+                        UUID.fromString(Objects.requireNonNull(playerId, "player_id"))));
+            } else if (memberType == MemberType.PERMISSION) {
+                members.add(new PermissionMember(Objects.requireNonNull(permission, "permission")));
+            } else {
+                throw new IllegalStateException("Unknown member type " + type);
+            }
+        }
+        reader.endArray();
+        return members;
+    }
+
+    private static List<FlagEntry<?>> readFlags(JsonReader reader) throws IOException {
+        final List<FlagEntry<?>> flags = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String flagType = null;
+            String key = null;
+            // The value is written before the key of the flag, which is needed to decode it
+            JsonElement value = null;
+            Set<FlagMemberGroup> groups = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "region_flag_type" -> flagType = reader.nextString();
+                    case "type" -> key = reader.nextString();
+                    case "value" -> value = JsonParser.parseReader(reader);
+                    case "groups" -> {
+                        groups = EnumSet.noneOf(FlagMemberGroup.class);
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            groups.add(FlagMemberGroup.valueOf(reader.nextString()));
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            final RegionFlagType<?> type = lookup(OrbisRegistries.FLAG_TYPE, flagType);
+            final RegistryRegionFlag<?> flag = lookup(OrbisRegistries.FLAGS, key);
+            if (type == RegionFlagType.MUTABLE) {
+                flags.add(decodeFlag(flag, Objects.requireNonNull(value, "value"), null));
+            } else if (type == RegionFlagType.GROUPED_MUTABLE) {
+                flags.add(decodeFlag(
+                        flag,
+                        Objects.requireNonNull(value, "value"),
+                        Objects.requireNonNull(groups, "groups")));
+            } else {
+                throw new IllegalStateException("Unknown flag type " + flagType);
+            }
+        }
+        reader.endArray();
+        return flags;
+    }
+
+    private static <T> FlagEntry<T> decodeFlag(
+            RegistryRegionFlag<T> flag, JsonElement value, @Nullable Set<FlagMemberGroup> groups) {
+        // Flag values are small, so they are still decoded by the codec of the flag
+        final T decoded =
+                flag.typeCodec().parse(JsonOps.INSTANCE, value).result().orElseThrow();
+        return new FlagEntry<>(flag, decoded, groups);
+    }
+
+    private static Area readArea(JsonReader reader) throws IOException {
+        String type = null;
+        List<Vector3ic> points = null;
+        Vector3ic center = null;
+        Double radius = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> type = reader.nextString();
+                case "points" -> {
+                    points = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        points.add(readVector(reader));
+                    }
+                    reader.endArray();
+                }
+                case "center" -> center = readVector(reader);
+                case "radius" -> radius = reader.nextDouble();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        final AreaType<?> areaType = lookup(OrbisRegistries.AREA_TYPE, type);
+        if (areaType == AreaType.CUBOID) {
+            return new CuboidArea(Objects.requireNonNull(points, "points"));
+        } else if (areaType == AreaType.POLYGON) {
+            return new PolygonArea(Objects.requireNonNull(points, "points"));
+        } else if (areaType == AreaType.POLYHEDRAL) {
+            return new PolyhedralArea(Objects.requireNonNull(points, "points"));
+        } else if (areaType == AreaType.SPHERE) {
+            return new SphericalArea(
+                    Objects.requireNonNull(center, "center"),
+                    Objects.requireNonNull(radius, "radius"));
+        }
+        throw new IllegalStateException("Unknown area type " + type);
+    }
+
+    private static Vector3ic readVector(JsonReader reader) throws IOException {
+        Integer x = null;
+        Integer y = null;
+        Integer z = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "x" -> x = reader.nextInt();
+                case "y" -> y = reader.nextInt();
+                case "z" -> z = reader.nextInt();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Vector3i(
+                Objects.requireNonNull(x, "x"),
+                Objects.requireNonNull(y, "y"),
+                Objects.requireNonNull(z, "z"));
+    }
+
+    private static <T> T lookup(KeyOrbisRegistry<T> registry, @Nullable String key) {
+        return registry.get(Key.key(Objects.requireNonNull(key, "type")))
+                .orElseThrow(() -> new IllegalStateException(
+                        "Unknown registry key in " + registry.key() + ": " + key));
+    }
+
+    private record FlagEntry<T>(
+            RegistryRegionFlag<T> flag, T value, @Nullable Set<FlagMemberGroup> groups) {
+
+        void addTo(Region region) {
+            if (groups == null) {
+                region.addFlag(flag).setValue(value);
+            } else {
+                region.addGroupedFlag(flag, groups).setValue(value);
+            }
+        }
+    }
+}
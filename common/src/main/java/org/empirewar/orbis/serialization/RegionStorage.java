@@ -0,0 +1,111 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import com.google.gson.JsonElement;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stores the serialised data of regions, as encoded by {@link RegionAdapter}.
+ * <p>
+ * Regions are stored by a name that is safe to use as a file name. Implementations must allow
+ * {@link #read(String)} to be called from several threads at once, so that regions can be read in
+ * parallel.
+ *
+ * @see RegionStorageType
+ */
+public sealed interface RegionStorage
+        permits JsonRegionStorage, BinaryRegionStorage, RegionDatabase {
+
+    /**
+     * Gets the names of all stored regions.
+     *
+     * @return the names, sorted
+     * @throws IOException if the names could not be listed
+     */
+    List<String> list() throws IOException;
+
+    /**
+     * Reads the data of a region, as it was stored.
+     *
+     * @param name the name of the region
+     * @return the data, which may need updating by {@link RegionAdapter#fix(JsonElement)}, or null
+     *         if the region is not stored
+     * @throws IOException if the region could not be read
+     */
+    @Nullable JsonElement read(String name) throws IOException;
+
+    /**
+     * Reads a region and decodes it as far as possible without the region registry.
+     * <p>
+     * By default, the stored data is read with {@link #read(String)}, updated and then decoded by
+     * the codecs.
+     *
+     * @param name the name of the region
+     * @return the region, to be finished on the thread that registers regions, or null if the
+     *         region is not stored or is not a region
+     * @throws IOException if the region could not be read
+     */
+    default RegionReader.@Nullable PendingRegion readRegion(String name) throws IOException {
+        return RegionReader.fromTree(read(name));
+    }
+
+    /**
+     * Writes the data of a region, replacing any stored data.
+     *
+     * @param name the name of the region
+     * @param data the data
+     * @throws IOException if the region could not be written
+     */
+    void write(String name, JsonElement data) throws IOException;
+
+    /**
+     * Deletes a region, if it is stored.
+     *
+     * @param name the name of the region
+     * @throws IOException if the region could not be deleted
+     */
+    void delete(String name) throws IOException;
+
+    /**
+     * Releases any open files. The storage can still be used afterwards, and opens them again.
+     *
+     * @throws IOException if a file could not be closed
+     */
+    default void close() throws IOException {}
+
+    /**
+     * Gets the name a region is stored by.
+     *
+     * @param regionName the name of the region
+     * @return the name to store the region by
+     */
+    static String storageName(String regionName) {
+        return regionName.replace(":", "-");
+    }
+}
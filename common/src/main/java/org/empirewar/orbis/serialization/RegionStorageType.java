@@ -0,0 +1,63 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import java.nio.file.Path;
+import java.util.function.Function;
+
+/**
+ * The formats regions can be stored in.
+ */
+public enum RegionStorageType {
+    /**
+     * A pretty-printed JSON file per region, which can be edited by hand.
+     */
+    JSON(JsonRegionStorage::new),
+    /**
+     * A compact binary file per region, which is smaller and faster to read. JSON files placed in
+     * the folder are imported.
+     */
+    BINARY(BinaryRegionStorage::new),
+    /**
+     * A single append-only file holding every region, which avoids reading many small files. JSON
+     * files placed in the folder are imported.
+     */
+    DATABASE(RegionDatabase::new);
+
+    private final Function<Path, RegionStorage> factory;
+
+    RegionStorageType(Function<Path, RegionStorage> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a storage of this type.
+     *
+     * @param folder the folder to store regions in
+     * @return the storage
+     */
+    public RegionStorage create(Path folder) {
+        return factory.apply(folder);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import org.empirewar.orbis.OrbisAPI;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes files on a background thread, so that saving never blocks the thread that made a change.
+ * <p>
+ * Callers snapshot the state to write on their own thread and queue a {@link Write} under a key,
+ * such as the name of a region. Writes are delayed, and a write queued under a key that already
+ * has one pending replaces it, so repeated changes within the delay are written once.
+ * {@link #flush()} waits for all pending writes, and should be called before the server stops.
+ */
+public final class RegionWriteQueue {
+
+    public static final Duration DEFAULT_DELAY = Duration.ofSeconds(2);
+
+    private final Map<String, Write> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "Orbis Region Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private volatile Duration delay = DEFAULT_DELAY;
+
+    /**
+     * Sets how long writes wait for further changes before they are written.
+     *
+     * @param delay the delay
+     */
+    public void delay(Duration delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Queues a write, replacing any write under the same key that is still pending.
+     * <p>
+     * The write must only use state snapshotted by the caller, as it runs on another thread.
+     *
+     * @param key the key of what is written
+     * @param write the write
+     */
+    public void queue(String key, Write write) {
+        if (pending.put(key, write) == null) {
+            executor.schedule(() -> run(key), delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes everything that is pending, waiting until it has been written.
+     */
+    public void flush() {
+        try {
+            executor.submit(() -> pending.keySet().forEach(this::run)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            OrbisAPI.get().logger().error("Error flushing region writes", e.getCause());
+        }
+    }
+
+    /**
+     * Writes what is pending under the specified keys, waiting until it has been written.
+     * <p>
+     * This returns without waiting if nothing is pending under the keys, so it is cheap to call
+     * before reading back what may have been written, such as regions that are loaded again.
+     * @param keys the keys of what to write
+     */
+    public void flush(Collection<String> keys) {
+        final List<String> pendingKeys = keys.stream().filter(pending::containsKey).toList();
+        if (pendingKeys.isEmpty()) return;
+        try {
+            executor.submit(() -> pendingKeys.forEach(this::run)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            OrbisAPI.get().logger().error("Error flushing region writes", e.getCause());
+        }
+    }
+
+    private void run(String key) {
+        // May have been written already by a flush
+        final Write write = pending.remove(key);
+        if (write == null) return;
+        try {
+            write.run();
+        } catch (IOException e) {
+            OrbisAPI.get().logger().error("Error writing '{}'", key, e);
+        }
+    }
+
+    /**
+     * Writes a file by writing a temporary file next to it first and then moving it over the
+     * file, so that the file is never left partially written.
+     *
+     * @param file the file
+     * @param contents the contents to write
+     * @throws IOException if the file could not be written
+     */
+    static void writeAtomically(Path file, byte[] contents) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, contents);
+        try {
+            Files.move(
+                    temp,
+                    file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A write of a file.
+     */
+    @FunctionalInterface
+    public interface Write {
+
+        void run() throws IOException;
+    }
+}
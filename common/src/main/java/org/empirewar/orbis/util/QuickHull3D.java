@@ -88,8 +88,9 @@ public final class QuickHull3D {
             // Calculate signed distance from point to face plane
             double dist = vp.dot(n);
 
-            // Consider point on positive side if it's outside or exactly on the face
-            return dist >= -EPSILON;
+            // Only points strictly outside can see the face. A point outside the hull is always
+            // strictly outside at least one face, even if it is coplanar with others.
+            return dist > EPSILON * Math.sqrt(n.dot(n));
         }
     }
 
@@ -152,83 +153,58 @@ public final class QuickHull3D {
     }
 
     private boolean findInitialTetrahedron() {
-        // Find 4 non-coplanar points to form a tetrahedron
+        // Find 4 points that are not coplanar, and move them to the front
         if (points.size() < 4) {
             return false;
         }
 
-        // Use first 4 points as initial tetrahedron
+        // Points are unique, so the first two points always form a line
         Point p0 = points.get(0);
-        Point p1 = points.get(1);
-        Point p2 = points.get(2);
-        Point p3 = points.get(3);
-
-        // Check if points are coplanar
-        Point v1 = p1.sub(p0);
-        Point v2 = p2.sub(p0);
-        Point v3 = p3.sub(p0);
-
-        double volume = v1.x * (v2.y * v3.z - v2.z * v3.y)
-                - v1.y * (v2.x * v3.z - v2.z * v3.x)
-                + v1.z * (v2.x * v3.y - v2.y * v3.x);
-
-        if (Math.abs(volume) < EPSILON) {
-            // Points are coplanar, try to find a different set
-            for (int i = 4; i < points.size(); i++) {
-                p3 = points.get(i);
-                v3 = p3.sub(p0);
-                volume = v1.x * (v2.y * v3.z - v2.z * v3.y)
-                        - v1.y * (v2.x * v3.z - v2.z * v3.x)
-                        + v1.z * (v2.x * v3.y - v2.y * v3.x);
-
-                if (Math.abs(volume) > EPSILON) {
-                    // Found non-coplanar point
-                    Collections.swap(points, 3, i);
-                    break;
-                }
-            }
-
-            if (Math.abs(volume) < EPSILON) {
-                return false; // All points are coplanar
+        Point v1 = points.get(1).sub(p0);
+        int third = -1;
+        for (int i = 2; i < points.size(); i++) {
+            Point n = v1.cross(points.get(i).sub(p0));
+            if (n.dot(n) > EPSILON) {
+                third = i;
+                break;
             }
         }
-
-        // Create faces of the tetrahedron with consistent orientation
-        faces = new ArrayList<>();
-
-        // Face 0: p0, p1, p2 (counter-clockwise when viewed from outside)
-        Point n1 = v1.cross(v2);
-        if (n1.dot(p3.sub(p0)) > 0) {
-            faces.add(new Face(0, 1, 2, n1));
-        } else {
-            faces.add(new Face(0, 2, 1, new Point(-n1.x, -n1.y, -n1.z, -1)));
+        if (third == -1) {
+            return false; // All points are co-linear
         }
-
-        // Face 1: p0, p2, p3
-        Point n2 = v2.cross(v3);
-        if (n2.dot(p1.sub(p0)) > 0) {
-            faces.add(new Face(0, 2, 3, n2));
-        } else {
-            faces.add(new Face(0, 3, 2, new Point(-n2.x, -n2.y, -n2.z, -1)));
+        Collections.swap(points, 2, third);
+
+        Point normal = v1.cross(points.get(2).sub(p0));
+        int fourth = -1;
+        for (int i = 3; i < points.size(); i++) {
+            if (Math.abs(normal.dot(points.get(i).sub(p0))) > EPSILON) {
+                fourth = i;
+                break;
+            }
         }
-
-        // Face 2: p0, p3, p1
-        Point n3 = v3.cross(v1);
-        if (n3.dot(p2.sub(p0)) > 0) {
-            faces.add(new Face(0, 3, 1, n3));
-        } else {
-            faces.add(new Face(0, 1, 3, new Point(-n3.x, -n3.y, -n3.z, -1)));
+        if (fourth == -1) {
+            return false; // All points are coplanar
         }
+        Collections.swap(points, 3, fourth);
+
+        // Create faces of the tetrahedron, counter-clockwise when viewed from outside
+        faces = new ArrayList<>();
+        addOutwardFace(0, 1, 2, 3);
+        addOutwardFace(0, 2, 3, 1);
+        addOutwardFace(0, 3, 1, 2);
+        addOutwardFace(1, 3, 2, 0);
+        return true;
+    }
 
-        // Face 3: p1, p3, p2
-        Point n4 = (p3.sub(p1)).cross(p2.sub(p1));
-        if (n4.dot(p0.sub(p1)) > 0) {
-            faces.add(new Face(1, 3, 2, n4));
+    // Winds a face so that its normal points away from the opposite vertex of the tetrahedron
+    private void addOutwardFace(int a, int b, int c, int opposite) {
+        Point pa = points.get(a);
+        Point normal = points.get(b).sub(pa).cross(points.get(c).sub(pa));
+        if (normal.dot(points.get(opposite).sub(pa)) < 0) {
+            faces.add(new Face(a, b, c, normal));
         } else {
-            faces.add(new Face(1, 2, 3, new Point(-n4.x, -n4.y, -n4.z, -1)));
+            faces.add(new Face(a, c, b, new Point(-normal.x, -normal.y, -normal.z, -1)));
         }
-
-        return true;
     }
 
     private void processPoint(int pointIndex) {
@@ -298,7 +274,12 @@ public final class QuickHull3D {
         List<int[]> result = new ArrayList<>();
         for (Face face : faces) {
             if (face.visible) {
-                result.add(new int[] {face.a, face.b, face.c});
+                // Points may have been reordered, so use the index they were given in
+                result.add(new int[] {
+                    points.get(face.a).index(),
+                    points.get(face.b).index(),
+                    points.get(face.c).index()
+                });
             }
         }
 
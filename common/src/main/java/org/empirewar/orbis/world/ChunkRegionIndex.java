@@ -0,0 +1,368 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import org.empirewar.orbis.region.Region;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A spatial index mapping packed chunk keys to the regions whose boxes overlap that chunk.
+ * <p>
+ * Each chunk holds an immutable bucket of regions ordered with the highest priority first, so a
+ * point query costs a single hash lookup followed by box and {@code Area#contains} checks.
+ * Regions spanning more than {@link #MAX_CHUNKS} chunks are kept in a separate bucket that is
+ * checked on every query, so that huge regions do not fill the table.
+ * <p>
+ * Buckets are swapped with release semantics and the table is only replaced whole when resized,
+ * so readers never lock. Writers are serialised on this index. A region that moves is linked into
+ * its new buckets before it is unlinked from its old ones, so a reader may see it in two buckets,
+ * which searches skip, but never misses it.
+ */
+final class ChunkRegionIndex implements RegionIndex {
+
+    private static final int MAX_CHUNKS = 4096;
+    private static final int BOX_SIZE = 6;
+
+    private static final VarHandle BUCKETS = MethodHandles.arrayElementVarHandle(Bucket[].class);
+
+    /**
+     * @param regions the regions in this bucket, with the highest priority first
+     * @param boxes the boxes of {@code regions}, stored flat
+     */
+    private record Bucket(Region[] regions, int[] boxes) {}
+
+    private static final Bucket EMPTY = new Bucket(new Region[0], new int[0]);
+
+    /**
+     * An open-addressing table from chunk key to bucket. A slot is free while its bucket is null;
+     * slots are never freed again, only emptied, until the table is rebuilt.
+     */
+    private static final class Table {
+
+        private final long[] keys;
+        private final Bucket[] buckets;
+        private final int mask;
+        private int used;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.buckets = new Bucket[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private @Nullable Bucket get(long key) {
+            int slot = slot(key);
+            Bucket bucket;
+            while ((bucket = (Bucket) BUCKETS.getAcquire(buckets, slot)) != null) {
+                if (keys[slot] == key) {
+                    return bucket;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private boolean set(long key, Bucket bucket) {
+            int slot = slot(key);
+            while (buckets[slot] != null) {
+                if (keys[slot] == key) {
+                    BUCKETS.setRelease(buckets, slot, bucket);
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            // Keep the load factor at or below a half so probes stay short
+            if ((used + 1) * 2 > buckets.length) {
+                return false;
+            }
+            keys[slot] = key;
+            BUCKETS.setRelease(buckets, slot, bucket);
+            used++;
+            return true;
+        }
+
+        private int slot(long key) {
+            // Spread both halves of the key across the table
+            final long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    // Guarded by this
+    private final Map<Region, int[]> boxes = new HashMap<>();
+
+    private volatile Table table = new Table(64);
+    private volatile Bucket oversized = EMPTY;
+
+    /**
+     * Packs chunk coordinates into a single key.
+     *
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return the packed key
+     */
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX & 0xFFFFFFFFL) | ((long) chunkZ << 32);
+    }
+
+    @Override
+    public void search(double x, double y, double z, RegionBuffer out) {
+        final long key = chunkKey(((int) Math.floor(x)) >> 4, ((int) Math.floor(z)) >> 4);
+        final Bucket bucket = table.get(key);
+        if (bucket != null) {
+            search(bucket, x, y, z, out);
+        }
+        // Merge with the candidates from the bucket, which are already ordered. A region being
+        // moved between a bucket and the oversized bucket may briefly be in both.
+        search(oversized, x, y, z, out);
+    }
+
+    private static void search(Bucket bucket, double x, double y, double z, RegionBuffer out) {
+        final Region[] regions = bucket.regions();
+        final int[] boxes = bucket.boxes();
+        for (int i = 0; i < regions.length; i++) {
+            final int offset = i * BOX_SIZE;
+            if (x >= boxes[offset]
+                    && y >= boxes[offset + 1]
+                    && z >= boxes[offset + 2]
+                    && x <= boxes[offset + 3]
+                    && y <= boxes[offset + 4]
+                    && z <= boxes[offset + 5]
+                    && !out.contains(regions[i])) {
+                out.addSorted(regions[i]);
+            }
+        }
+    }
+
+    @Override
+    public void search(
+            int minX, int minY, int minZ, int maxX, int maxY, int maxZ, RegionBuffer out) {
+        final Table table = this.table;
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                final Bucket bucket = table.get(chunkKey(chunkX, chunkZ));
+                if (bucket != null) {
+                    search(bucket, minX, minY, minZ, maxX, maxY, maxZ, out);
+                }
+            }
+        }
+        search(oversized, minX, minY, minZ, maxX, maxY, maxZ, out);
+    }
+
+    private static void search(
+            Bucket bucket,
+            int minX,
+            int minY,
+            int minZ,
+            int maxX,
+            int maxY,
+            int maxZ,
+            RegionBuffer out) {
+        final Region[] regions = bucket.regions();
+        final int[] boxes = bucket.boxes();
+        for (int i = 0; i < regions.length; i++) {
+            final int offset = i * BOX_SIZE;
+            if (maxX >= boxes[offset]
+                    && maxY >= boxes[offset + 1]
+                    && maxZ >= boxes[offset + 2]
+                    && minX <= boxes[offset + 3]
+                    && minY <= boxes[offset + 4]
+                    && minZ <= boxes[offset + 5]
+                    // Regions spanning several chunks are in each of their buckets
+                    && !out.contains(regions[i])) {
+                out.addSorted(regions[i]);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void put(Region region, int[] box) {
+        final int[] old = boxes.put(region, box);
+        // Link the new box before unlinking the old one, so readers always find the region in one
+        // of them while it moves
+        link(region, box);
+        if (old != null) {
+            unlink(region, old, box);
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(Region region) {
+        final int[] old = boxes.remove(region);
+        if (old == null) {
+            return false;
+        }
+        unlink(region, old, null);
+        return true;
+    }
+
+    private void link(Region region, int[] box) {
+        // Any existing entry is replaced in the same swap, so it is never missing from a bucket
+        if (isOversized(box)) {
+            oversized = with(without(oversized, region), region, box);
+            return;
+        }
+
+        for (int chunkX = box[0] >> 4; chunkX <= box[3] >> 4; chunkX++) {
+            for (int chunkZ = box[2] >> 4; chunkZ <= box[5] >> 4; chunkZ++) {
+                final long key = chunkKey(chunkX, chunkZ);
+                final Bucket bucket = table.get(key);
+                setBucket(key, with(bucket == null ? EMPTY : without(bucket, region), region, box));
+            }
+        }
+    }
+
+    /**
+     * Unlinks a region from the buckets of a box.
+     *
+     * @param region the region
+     * @param box the box to unlink
+     * @param kept the box the region has been linked with since, whose buckets are kept, or null
+     */
+    private void unlink(Region region, int[] box, int @Nullable [] kept) {
+        final boolean keptOversized = kept != null && isOversized(kept);
+        if (isOversized(box)) {
+            if (!keptOversized) {
+                oversized = without(oversized, region);
+            }
+            return;
+        }
+
+        for (int chunkX = box[0] >> 4; chunkX <= box[3] >> 4; chunkX++) {
+            for (int chunkZ = box[2] >> 4; chunkZ <= box[5] >> 4; chunkZ++) {
+                if (kept != null && !keptOversized && containsChunk(kept, chunkX, chunkZ)) {
+                    continue;
+                }
+                final long key = chunkKey(chunkX, chunkZ);
+                final Bucket bucket = table.get(key);
+                if (bucket != null) {
+                    setBucket(key, without(bucket, region));
+                }
+            }
+        }
+    }
+
+    private void setBucket(long key, Bucket bucket) {
+        if (table.set(key, bucket)) {
+            return;
+        }
+
+        // Rebuild into a larger table, dropping empty buckets, then publish it whole
+        final Table current = table;
+        int live = 1;
+        for (Bucket existing : current.buckets) {
+            if (existing != null && existing != EMPTY) {
+                live++;
+            }
+        }
+
+        final Table resized = new Table(Integer.highestOneBit(Math.max(live * 4 - 1, 63)) << 1);
+        for (int slot = 0; slot < current.buckets.length; slot++) {
+            final Bucket existing = current.buckets[slot];
+            if (existing != null && existing != EMPTY) {
+                resized.set(current.keys[slot], existing);
+            }
+        }
+        resized.set(key, bucket);
+        this.table = resized;
+    }
+
+    private static boolean containsChunk(int[] box, int chunkX, int chunkZ) {
+        return chunkX >= box[0] >> 4
+                && chunkX <= box[3] >> 4
+                && chunkZ >= box[2] >> 4
+                && chunkZ <= box[5] >> 4;
+    }
+
+    private static boolean isOversized(int[] box) {
+        final long chunks =
+                (long) ((box[3] >> 4) - (box[0] >> 4) + 1) * ((box[5] >> 4) - (box[2] >> 4) + 1);
+        return chunks > MAX_CHUNKS;
+    }
+
+    private static Bucket with(Bucket bucket, Region region, int[] box) {
+        final Region[] regions = bucket.regions();
+        // Insert after any regions of the same or higher priority
+        int index = 0;
+        while (index < regions.length && regions[index].priority() >= region.priority()) {
+            index++;
+        }
+
+        final Region[] newRegions = new Region[regions.length + 1];
+        System.arraycopy(regions, 0, newRegions, 0, index);
+        newRegions[index] = region;
+        System.arraycopy(regions, index, newRegions, index + 1, regions.length - index);
+
+        final int[] boxes = bucket.boxes();
+        final int[] newBoxes = new int[boxes.length + BOX_SIZE];
+        System.arraycopy(boxes, 0, newBoxes, 0, index * BOX_SIZE);
+        System.arraycopy(box, 0, newBoxes, index * BOX_SIZE, BOX_SIZE);
+        System.arraycopy(
+                boxes,
+                index * BOX_SIZE,
+                newBoxes,
+                (index + 1) * BOX_SIZE,
+                boxes.length - index * BOX_SIZE);
+        return new Bucket(newRegions, newBoxes);
+    }
+
+    private static Bucket without(Bucket bucket, Region region) {
+        final Region[] regions = bucket.regions();
+        int index = -1;
+        for (int i = 0; i < regions.length; i++) {
+            if (regions[i] == region) {
+                index = i;
+                break;
+            }
+        }
+
+        if (index == -1) {
+            return bucket;
+        }
+        if (regions.length == 1) {
+            return EMPTY;
+        }
+
+        final Region[] newRegions = new Region[regions.length - 1];
+        System.arraycopy(regions, 0, newRegions, 0, index);
+        System.arraycopy(regions, index + 1, newRegions, index, newRegions.length - index);
+
+        final int[] boxes = bucket.boxes();
+        final int[] newBoxes = new int[boxes.length - BOX_SIZE];
+        System.arraycopy(boxes, 0, newBoxes, 0, index * BOX_SIZE);
+        System.arraycopy(
+                boxes,
+                (index + 1) * BOX_SIZE,
+                newBoxes,
+                index * BOX_SIZE,
+                newBoxes.length - index * BOX_SIZE);
+        return new Bucket(newRegions, newBoxes);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import org.empirewar.orbis.flag.RegistryRegionFlag;
+import org.empirewar.orbis.util.PackedPositions;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, direct-mapped cache of resolved flag values at block positions.
+ * <p>
+ * Entries are keyed by packed block position, flag and whether the query was made for a player.
+ * A colliding entry simply replaces the previous one. Entries are immutable, so slots can be read
+ * and written without locking.
+ * <p>
+ * To avoid storing a value that was resolved while the world was being changed, every
+ * invalidation bumps a generation counter. A value is only kept if no invalidation happened
+ * between starting to resolve it and storing it.
+ */
+final class FlagCache {
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(Entry[].class);
+
+    // The states of a boolean flag returned by getState
+    static final byte MISSING = 0;
+    static final byte NOT_SET = 1;
+    static final byte TRUE = 2;
+    static final byte FALSE = 3;
+
+    // Boolean values are stored as shared instances, so they can be cached without allocating
+    private static final Optional<Boolean> TRUE_VALUE = Optional.of(true);
+    private static final Optional<Boolean> FALSE_VALUE = Optional.of(false);
+
+    private record Entry(
+            long position, RegistryRegionFlag<?> flag, boolean player, Optional<?> value) {}
+
+    private final Entry[] entries;
+    private final int mask;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param size the maximum number of entries, rounded up to a power of two
+     */
+    FlagCache(int size) {
+        final int capacity = Math.max(1, Integer.highestOneBit(Math.max(size - 1, 1)) << 1);
+        this.entries = new Entry[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Gets the generation to pass to {@link #put}, which must be read before resolving the value.
+     *
+     * @return the current generation
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    @SuppressWarnings("OptionalAssignedToNull")
+    @Nullable Optional<?> get(long position, RegistryRegionFlag<?> flag, boolean player) {
+        final Entry entry = (Entry) ENTRIES.getAcquire(entries, slot(position, flag, player));
+        if (entry != null
+                && entry.position() == position
+                && entry.flag() == flag
+                && entry.player() == player) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Gets the cached state of a boolean flag.
+     *
+     * @return {@link #TRUE}, {@link #FALSE} or {@link #NOT_SET}, or {@link #MISSING} if not cached
+     */
+    byte getState(long position, RegistryRegionFlag<Boolean> flag, boolean player) {
+        final Optional<?> value = get(position, flag, player);
+        if (value == null) {
+            return MISSING;
+        }
+        if (value.isEmpty()) {
+            return NOT_SET;
+        }
+        return (Boolean) value.get() ? TRUE : FALSE;
+    }
+
+    /**
+     * Caches the state of a boolean flag, shared with values cached by {@link #put}.
+     *
+     * @param state {@link #TRUE}, {@link #FALSE} or {@link #NOT_SET}
+     */
+    void putState(
+            long generation,
+            long position,
+            RegistryRegionFlag<Boolean> flag,
+            boolean player,
+            byte state) {
+        final Optional<Boolean> value =
+                switch (state) {
+                    case TRUE -> TRUE_VALUE;
+                    case FALSE -> FALSE_VALUE;
+                    default -> Optional.empty();
+                };
+        put(generation, position, flag, player, value);
+    }
+
+    void put(
+            long generation,
+            long position,
+            RegistryRegionFlag<?> flag,
+            boolean player,
+            Optional<?> value) {
+        final int slot = slot(position, flag, player);
+        final Entry entry = new Entry(position, flag, player, value);
+        ENTRIES.setVolatile(entries, slot, entry);
+        // An invalidation may have scanned past this slot before we wrote it, so check again
+        if (this.generation.get() != generation) {
+            ENTRIES.compareAndSet(entries, slot, entry, null);
+        }
+    }
+
+    /**
+     * Removes every entry within the specified box.
+     *
+     * @param box the box as {@code minX, minY, minZ, maxX, maxY, maxZ}, inclusive
+     */
+    void invalidate(int[] box) {
+        generation.incrementAndGet();
+        for (int slot = 0; slot < entries.length; slot++) {
+            final Entry entry = (Entry) ENTRIES.getVolatile(entries, slot);
+            if (entry == null) continue;
+            final long position = entry.position();
+            final int x = PackedPositions.unpackX(position);
+            final int y = PackedPositions.unpackY(position);
+            final int z = PackedPositions.unpackZ(position);
+            if (x >= box[0]
+                    && y >= box[1]
+                    && z >= box[2]
+                    && x <= box[3]
+                    && y <= box[4]
+                    && z <= box[5]) {
+                ENTRIES.compareAndSet(entries, slot, entry, null);
+            }
+        }
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        for (int slot = 0; slot < entries.length; slot++) {
+            ENTRIES.setVolatile(entries, slot, null);
+        }
+    }
+
+    FlagCacheStats stats() {
+        return new FlagCacheStats(hits.sum(), misses.sum(), entries.length);
+    }
+
+    private int slot(long position, RegistryRegionFlag<?> flag, boolean player) {
+        long hash = position * 0x9E3779B97F4A7C15L;
+        hash ^= flag.hashCode() * 0xC2B2AE3D27D4EB4FL;
+        if (player) {
+            hash = ~hash;
+        }
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
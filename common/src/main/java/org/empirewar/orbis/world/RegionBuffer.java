@@ -0,0 +1,119 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import org.empirewar.orbis.region.Region;
+
+import java.util.Arrays;
+
+/**
+ * A growable buffer of regions used to collect query candidates without allocating.
+ * <p>
+ * Buffers are not thread-safe and are intended to be held per thread.
+ */
+final class RegionBuffer {
+
+    private Region[] regions = new Region[16];
+    private int size;
+
+    void add(Region region) {
+        if (size == regions.length) {
+            regions = Arrays.copyOf(regions, size * 2);
+        }
+        regions[size++] = region;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets whether this buffer holds the specified region, by identity.
+     *
+     * @param region the region
+     * @return true if the region is in this buffer
+     */
+    boolean contains(Region region) {
+        for (int i = 0; i < size; i++) {
+            if (regions[i] == region) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Region get(int index) {
+        return regions[index];
+    }
+
+    void set(int index, Region region) {
+        regions[index] = region;
+    }
+
+    /**
+     * Discards every region at or after the specified size.
+     *
+     * @param newSize the new size, which must not exceed the current size
+     */
+    void truncate(int newSize) {
+        Arrays.fill(regions, newSize, size, null);
+        size = newSize;
+    }
+
+    /**
+     * Inserts a region into a buffer that is ordered with the highest priority first, after any
+     * regions of the same priority.
+     * <p>
+     * Adding regions that are already in priority order costs no more than {@link #add(Region)}.
+     *
+     * @param region the region to insert
+     */
+    void addSorted(Region region) {
+        add(region);
+        final int priority = region.priority();
+        int index = size - 1;
+        while (index > 0 && regions[index - 1].priority() < priority) {
+            regions[index] = regions[index - 1];
+            index--;
+        }
+        regions[index] = region;
+    }
+
+    /**
+     * Copies the contents of this buffer into a new array and clears it.
+     *
+     * @return the regions that were in the buffer
+     */
+    Region[] drain() {
+        final Region[] result = Arrays.copyOf(regions, size);
+        clear();
+        return result;
+    }
+
+    void clear() {
+        // Don't keep regions reachable from the buffer
+        Arrays.fill(regions, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import org.empirewar.orbis.region.Region;
+
+import java.util.Map;
+
+/**
+ * A spatial index of the bounding boxes of regions within a {@link RegionisedWorldSet}.
+ * <p>
+ * Boxes are given as {@code minX, minY, minZ, maxX, maxY, maxZ}, inclusive on both ends.
+ * Implementations must allow {@link #search(double, double, double, RegionBuffer)} to be called
+ * from any thread while another thread is writing.
+ *
+ * @see RegionIndexType
+ */
+sealed interface RegionIndex permits ChunkRegionIndex, RegionTree {
+
+    /**
+     * Adds every region whose box contains the specified point to the buffer, keeping the buffer
+     * ordered with the highest priority first.
+     *
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @param out the buffer to add candidates to
+     */
+    void search(double x, double y, double z, RegionBuffer out);
+
+    /**
+     * Adds every region whose box intersects the specified block box to the buffer once, keeping
+     * the buffer ordered with the highest priority first.
+     *
+     * @param minX the minimum block x coordinate
+     * @param minY the minimum block y coordinate
+     * @param minZ the minimum block z coordinate
+     * @param maxX the maximum block x coordinate, inclusive
+     * @param maxY the maximum block y coordinate, inclusive
+     * @param maxZ the maximum block z coordinate, inclusive
+     * @param out the buffer to add candidates to
+     */
+    void search(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, RegionBuffer out);
+
+    /**
+     * Inserts or moves a region.
+     * <p>
+     * This is also called when the priority of a region changes, so that implementations that
+     * order regions by priority can re-key them.
+     *
+     * @param region the region
+     * @param box the bounding box of the region
+     */
+    void put(Region region, int[] box);
+
+    /**
+     * Inserts or moves many regions at once, such as when a world is loaded.
+     * <p>
+     * Implementations that build their structure in bulk should do so in a single pass, instead of
+     * inserting each region on its own.
+     *
+     * @param boxes the bounding box of each region
+     */
+    default void putAll(Map<Region, int[]> boxes) {
+        boxes.forEach(this::put);
+    }
+
+    /**
+     * Removes a region.
+     *
+     * @param region the region
+     * @return true if the region was present
+     */
+    boolean remove(Region region);
+}
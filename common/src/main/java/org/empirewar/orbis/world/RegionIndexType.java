@@ -0,0 +1,51 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import java.util.function.Supplier;
+
+/**
+ * The types of spatial index a {@link RegionisedWorldSet} can use to find candidate regions.
+ */
+public enum RegionIndexType {
+    /**
+     * A bulk-loaded tree of region bounding boxes. Suits any mix of region sizes.
+     */
+    TREE(RegionTree::new),
+    /**
+     * A table from chunk to the regions overlapping it, so a point query is a single hash lookup.
+     * Suits worlds where most regions span a modest number of chunks.
+     */
+    CHUNK(ChunkRegionIndex::new);
+
+    private final Supplier<RegionIndex> factory;
+
+    RegionIndexType(Supplier<RegionIndex> factory) {
+        this.factory = factory;
+    }
+
+    RegionIndex create() {
+        return factory.get();
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import org.empirewar.orbis.region.Region;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A concurrent spatial index of region bounding boxes.
+ * <p>
+ * Regions are bulk-loaded into an immutable, sort-tile-recursive (STR) packed tree. Changes made
+ * since the last build are kept in a small delta of added boxes and removed tree entries, which is
+ * folded into a new tree once it holds more than a few changes, so edits are batched into
+ * occasional rebuilds instead of copying a tree path each time. The delta is kept small, as every
+ * search scans it.
+ * <p>
+ * Every change publishes a new immutable {@link Snapshot} through a volatile field. Readers never
+ * lock and always see a fully built index; writers are serialised on this index.
+ */
+final class RegionTree implements RegionIndex {
+
+    private static final int NODE_CAPACITY = 8;
+    private static final int MAX_DELTA = 32;
+
+    /**
+     * Boxes are stored flat, see {@link RegionIndex}.
+     */
+    private static final int BOX_SIZE = 6;
+
+    /**
+     * @param entries the regions in the tree, in leaf order
+     * @param levels the boxes of each level of the tree, where level 0 holds the entry boxes
+     * @param added regions added or moved since the tree was built
+     * @param addedBoxes the boxes of {@code added}
+     * @param removed a bit for each index of {@code entries} that has since been removed or moved,
+     *        or an empty array if none have
+     * @param removedCount the number of bits set in {@code removed}
+     */
+    private record Snapshot(
+            Region[] entries,
+            int[][] levels,
+            Region[] added,
+            int[] addedBoxes,
+            long[] removed,
+            int removedCount) {
+
+        boolean isRemoved(int entry) {
+            return removedCount > 0 && (removed[entry >>> 6] & (1L << entry)) != 0;
+        }
+    }
+
+    private static final Snapshot EMPTY =
+            new Snapshot(new Region[0], new int[0][], new Region[0], new int[0], new long[0], 0);
+
+    // Guarded by this
+    private final Map<Region, int[]> boxes = new HashMap<>();
+    // The index of each region in the entries of the current tree
+    private final Map<Region, Integer> built = new HashMap<>();
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    @Override
+    public void search(double x, double y, double z, RegionBuffer out) {
+        search(x, y, z, x, y, z, out);
+    }
+
+    @Override
+    public void search(
+            int minX, int minY, int minZ, int maxX, int maxY, int maxZ, RegionBuffer out) {
+        search((double) minX, minY, minZ, maxX, maxY, maxZ, out);
+    }
+
+    private void search(
+            double minX,
+            double minY,
+            double minZ,
+            double maxX,
+            double maxY,
+            double maxZ,
+            RegionBuffer out) {
+        final Snapshot snapshot = this.snapshot;
+        final int[][] levels = snapshot.levels();
+        if (levels.length > 0) {
+            final int top = levels.length - 1;
+            final int nodes = levels[top].length / BOX_SIZE;
+            for (int node = 0; node < nodes; node++) {
+                search(snapshot, top, node, minX, minY, minZ, maxX, maxY, maxZ, out);
+            }
+        }
+
+        final Region[] added = snapshot.added();
+        final int[] addedBoxes = snapshot.addedBoxes();
+        for (int i = 0; i < added.length; i++) {
+            if (intersects(addedBoxes, i, minX, minY, minZ, maxX, maxY, maxZ)) {
+                out.addSorted(added[i]);
+            }
+        }
+    }
+
+    private static void search(
+            Snapshot snapshot,
+            int level,
+            int node,
+            double minX,
+            double minY,
+            double minZ,
+            double maxX,
+            double maxY,
+            double maxZ,
+            RegionBuffer out) {
+        final int[][] levels = snapshot.levels();
+        if (!intersects(levels[level], node, minX, minY, minZ, maxX, maxY, maxZ)) {
+            return;
+        }
+
+        if (level == 0) {
+            if (!snapshot.isRemoved(node)) {
+                out.addSorted(snapshot.entries()[node]);
+            }
+            return;
+        }
+
+        final int from = node * NODE_CAPACITY;
+        final int to = Math.min(from + NODE_CAPACITY, levels[level - 1].length / BOX_SIZE);
+        for (int child = from; child < to; child++) {
+            search(snapshot, level - 1, child, minX, minY, minZ, maxX, maxY, maxZ, out);
+        }
+    }
+
+    @Override
+    public synchronized void put(Region region, int[] box) {
+        boxes.put(region, box);
+
+        final Snapshot current = this.snapshot;
+        Region[] added = current.added();
+        int[] addedBoxes = current.addedBoxes();
+        final int index = indexOf(added, region);
+        if (index == -1) {
+            added = Arrays.copyOf(added, added.length + 1);
+            added[added.length - 1] = region;
+            addedBoxes = Arrays.copyOf(addedBoxes, addedBoxes.length + BOX_SIZE);
+            System.arraycopy(box, 0, addedBoxes, index(added.length - 1), BOX_SIZE);
+        } else {
+            addedBoxes = addedBoxes.clone();
+            System.arraycopy(box, 0, addedBoxes, index(index), BOX_SIZE);
+        }
+
+        publish(current, added, addedBoxes, region);
+    }
+
+    @Override
+    public synchronized void putAll(Map<Region, int[]> boxes) {
+        if (boxes.isEmpty()) {
+            return;
+        }
+
+        // Pack everything into a new tree at once, rather than growing the delta
+        this.boxes.putAll(boxes);
+        rebuild();
+    }
+
+    @Override
+    public synchronized boolean remove(Region region) {
+        if (boxes.remove(region) == null) {
+            return false;
+        }
+
+        final Snapshot current = this.snapshot;
+        Region[] added = current.added();
+        int[] addedBoxes = current.addedBoxes();
+        final int index = indexOf(added, region);
+        if (index != -1) {
+            final Region[] newAdded = new Region[added.length - 1];
+            System.arraycopy(added, 0, newAdded, 0, index);
+            System.arraycopy(added, index + 1, newAdded, index, newAdded.length - index);
+            final int[] newBoxes = new int[addedBoxes.length - BOX_SIZE];
+            System.arraycopy(addedBoxes, 0, newBoxes, 0, index(index));
+            System.arraycopy(
+                    addedBoxes,
+                    index(index + 1),
+                    newBoxes,
+                    index(index),
+                    newBoxes.length - index(index));
+            added = newAdded;
+            addedBoxes = newBoxes;
+        }
+
+        publish(current, added, addedBoxes, region);
+        return true;
+    }
+
+    private void publish(Snapshot current, Region[] added, int[] addedBoxes, Region changed) {
+        // The tree entry of the changed region, if any, is now out of date
+        long[] removed = current.removed();
+        int removedCount = current.removedCount();
+        final Integer entry = built.get(changed);
+        if (entry != null && !current.isRemoved(entry)) {
+            removed = removedCount == 0
+                    ? new long[Math.ceilDiv(current.entries().length, 64)]
+                    : removed.clone();
+            removed[entry >>> 6] |= 1L << entry;
+            removedCount++;
+        }
+
+        if (added.length + removedCount > MAX_DELTA) {
+            rebuild();
+            return;
+        }
+        this.snapshot = new Snapshot(
+                current.entries(), current.levels(), added, addedBoxes, removed, removedCount);
+    }
+
+    private void rebuild() {
+        this.snapshot = pack(boxes);
+        built.clear();
+        final Region[] entries = snapshot.entries();
+        for (int i = 0; i < entries.length; i++) {
+            built.put(entries[i], i);
+        }
+    }
+
+    private static Snapshot pack(Map<Region, int[]> boxes) {
+        final int size = boxes.size();
+        if (size == 0) {
+            return EMPTY;
+        }
+
+        final Region[] regions = boxes.keySet().toArray(new Region[0]);
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        // Sort-tile-recursive: slice by x, then each slab by y, then each run by z
+        final int leaves = Math.ceilDiv(size, NODE_CAPACITY);
+        final int slices = (int) Math.ceil(Math.cbrt(leaves));
+        final int slabSize = slices * slices * NODE_CAPACITY;
+        final int runSize = slices * NODE_CAPACITY;
+        Arrays.sort(order, byCentre(regions, boxes, 0));
+        for (int slab = 0; slab < size; slab += slabSize) {
+            final int slabEnd = Math.min(slab + slabSize, size);
+            Arrays.sort(order, slab, slabEnd, byCentre(regions, boxes, 1));
+            for (int run = slab; run < slabEnd; run += runSize) {
+                final int runEnd = Math.min(run + runSize, slabEnd);
+                Arrays.sort(order, run, runEnd, byCentre(regions, boxes, 2));
+            }
+        }
+
+        final Region[] entries = new Region[size];
+        final int[] entryBoxes = new int[size * BOX_SIZE];
+        for (int i = 0; i < size; i++) {
+            entries[i] = regions[order[i]];
+            System.arraycopy(boxes.get(entries[i]), 0, entryBoxes, index(i), BOX_SIZE);
+        }
+
+        // Build parent levels by grouping consecutive nodes, until one level fits a single node
+        int[][] levels = new int[][] {entryBoxes};
+        int[] level = entryBoxes;
+        while (level.length / BOX_SIZE > NODE_CAPACITY) {
+            final int children = level.length / BOX_SIZE;
+            final int[] parents = new int[Math.ceilDiv(children, NODE_CAPACITY) * BOX_SIZE];
+            for (int child = 0; child < children; child++) {
+                final int parent = index(child / NODE_CAPACITY);
+                final int offset = index(child);
+                if (child % NODE_CAPACITY == 0) {
+                    System.arraycopy(level, offset, parents, parent, BOX_SIZE);
+                    continue;
+                }
+                for (int axis = 0; axis < 3; axis++) {
+                    parents[parent + axis] = Math.min(parents[parent + axis], level[offset + axis]);
+                    parents[parent + axis + 3] =
+                            Math.max(parents[parent + axis + 3], level[offset + axis + 3]);
+                }
+            }
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = parents;
+            level = parents;
+        }
+
+        return new Snapshot(entries, levels, new Region[0], new int[0], new long[0], 0);
+    }
+
+    private static Comparator<Integer> byCentre(
+            Region[] regions, Map<Region, int[]> boxes, int axis) {
+        return Comparator.comparingLong(i -> {
+            final int[] box = boxes.get(regions[i]);
+            return (long) box[axis] + box[axis + 3];
+        });
+    }
+
+    private static boolean intersects(
+            int[] boxes,
+            int box,
+            double minX,
+            double minY,
+            double minZ,
+            double maxX,
+            double maxY,
+            double maxZ) {
+        final int offset = index(box);
+        return maxX >= boxes[offset]
+                && maxY >= boxes[offset + 1]
+                && maxZ >= boxes[offset + 2]
+                && minX <= boxes[offset + 3]
+                && minY <= boxes[offset + 4]
+                && minZ <= boxes[offset + 5];
+    }
+
+    private static int indexOf(Region[] regions, Region region) {
+        for (int i = 0; i < regions.length; i++) {
+            if (regions[i] == region) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int index(int box) {
+        return box * BOX_SIZE;
+    }
+}
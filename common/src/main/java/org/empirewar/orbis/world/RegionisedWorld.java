@@ -25,11 +25,18 @@ package org.empirewar.orbis.world;
 
 import net.kyori.adventure.key.Key;
 
+import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.util.PackedPositions;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3ic;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Represents a world that contains a set of {@link Region}s.
@@ -49,6 +56,99 @@ public sealed interface RegionisedWorld extends RegionQuery.Position.Queryable p
      */
     Optional<Key> worldId();
 
+    /**
+     * Queries for the regions that contain the specified point.
+     * <p>
+     * This is the primitive form of {@link #query(RegionQuery.Position)}, intended for hot paths
+     * such as movement handling, and does not allocate intermediate collections.
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return an immutable view of the regions at the point, with the highest priority first
+     * @see Region#priority()
+     */
+    SortedRegionView query(double x, double y, double z);
+
+    /**
+     * Queries for the value of a flag at the specified block position.
+     * <p>
+     * This resolves the flag in the same way as chaining {@link #query(RegionQuery.Position)} with
+     * {@link RegionQuery.FilterableRegionResult#query(RegionQuery.Flag)}, but results are cached
+     * per world until a region affecting the position changes.
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @param flag the flag query
+     * @return the value of the flag, or {@link Optional#empty()} if no region here has it
+     * @param <T> the flag type
+     */
+    <T> Optional<T> queryFlag(int x, int y, int z, RegionQuery.Flag<T> flag);
+
+    /**
+     * Tests the value of a boolean flag at the specified block position.
+     * <p>
+     * This resolves the flag in the same way as chaining {@link #query(RegionQuery.Position)} with
+     * {@link RegionQuery.FilterableRegionResult#query(RegionQuery.Flag)}, stopping at the first
+     * region in priority order that has the flag. It does not allocate, so it is preferred over
+     * {@link #queryFlag(int, int, int, RegionQuery.Flag)} for boolean flags on hot paths such as
+     * block and entity events. Results share the cache of
+     * {@link #queryFlag(int, int, int, RegionQuery.Flag)}.
+     * @param x the block x coordinate
+     * @param y the block y coordinate
+     * @param z the block z coordinate
+     * @param flag the flag
+     * @param player the player to check member groups for, or null to ignore groups
+     * @param def the value to return if no region here has the flag
+     * @return the value of the flag, or {@code def} if no region here has it
+     */
+    boolean test(
+            int x,
+            int y,
+            int z,
+            RegistryRegionFlag<Boolean> flag,
+            @Nullable UUID player,
+            boolean def);
+
+    /**
+     * Queries a boolean flag at many block positions at once, such as the blocks affected by an
+     * explosion or a piston.
+     * <p>
+     * The candidate regions are fetched once for the bounding box of all positions, and the value
+     * of the flag in each candidate is resolved once, so this is much cheaper than querying each
+     * position on its own. Positions should therefore be close together.
+     * @param positions the block positions, packed with {@link PackedPositions#pack(int, int, int)}
+     * @param flag the flag query
+     * @return the indices of the positions where the flag is {@code false}; positions where no
+     *         region has the flag are not denied
+     */
+    BitSet queryDenied(long[] positions, RegionQuery.Flag<Boolean> flag);
+
+    /**
+     * Queries a boolean flag at many block positions at once.
+     *
+     * @param positions the block positions
+     * @param flag the flag query
+     * @return the indices, in iteration order, of the positions where the flag is {@code false}
+     * @see #queryDenied(long[], RegionQuery.Flag)
+     */
+    default BitSet queryDenied(
+            Collection<? extends Vector3ic> positions, RegionQuery.Flag<Boolean> flag) {
+        final long[] packed = new long[positions.size()];
+        int index = 0;
+        for (Vector3ic position : positions) {
+            packed[index++] = PackedPositions.pack(position.x(), position.y(), position.z());
+        }
+        return queryDenied(packed, flag);
+    }
+
+    /**
+     * Gets the statistics of the cache used by {@link #queryFlag(int, int, int, RegionQuery.Flag)}
+     * and {@link #test(int, int, int, RegistryRegionFlag, UUID, boolean)}.
+     *
+     * @return the cache statistics, or {@link FlagCacheStats#DISABLED} if the cache is disabled
+     */
+    FlagCacheStats flagCacheStats();
+
     /**
      * Gets the set of regions within this regionised world.
      *
@@ -72,6 +172,17 @@ public sealed interface RegionisedWorld extends RegionQuery.Position.Queryable p
      */
     boolean add(Region region);
 
+    /**
+     * Adds many regions to this world at once, such as when the world is loaded.
+     * <p>
+     * This is equivalent to calling {@link #add(Region)} for each region, but the spatial index is
+     * built in a single pass.
+     *
+     * @param regions the regions to add
+     * @return true if any region was not already attached to this world
+     */
+    boolean addAll(Collection<? extends Region> regions);
+
     /**
      * Attempts to remove a region from this world.
      *
@@ -23,54 +23,71 @@
  */
 package org.empirewar.orbis.world;
 
-import com.github.davidmoten.rtreemulti.Entry;
-import com.github.davidmoten.rtreemulti.RTree;
-import com.github.davidmoten.rtreemulti.geometry.Geometry;
-import com.github.davidmoten.rtreemulti.geometry.Rectangle;
-
 import net.kyori.adventure.key.Key;
+import net.kyori.adventure.util.TriState;
 
 import org.empirewar.orbis.area.Area;
 import org.empirewar.orbis.area.EncompassingArea;
+import org.empirewar.orbis.flag.GroupedMutableRegionFlag;
+import org.empirewar.orbis.flag.MutableRegionFlag;
+import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.util.PackedPositions;
 import org.jetbrains.annotations.Nullable;
 import org.joml.Vector3dc;
 import org.joml.Vector3ic;
 
-import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Holds the regions of a world. Uses a 3D RTree to query regions.
+ * Holds the regions of a world. Uses a {@link RegionIndex} to query regions.
  *
  * @see RegionisedWorld
  */
 public final class RegionisedWorldSet implements RegionisedWorld {
 
-    private record GeometryEntry(@Nullable Geometry geometry, Runnable listener) {}
+    private static final ThreadLocal<RegionBuffer> SCRATCH =
+            ThreadLocal.withInitial(RegionBuffer::new);
+
+    // The value of a boolean flag within a candidate region of a batch query
+    private static final byte UNRESOLVED = 0;
+    private static final byte ABSENT = 1;
+    private static final byte ALLOWED = 2;
+    private static final byte DENIED = 3;
 
     private final Key worldId;
     private final Set<Region> regions;
-    private final Map<Region, GeometryEntry> regionGeometries;
+    private final Map<Region, TrackedRegion> tracked;
+    private final RegionIndex regionIndex;
+    private final @Nullable FlagCache flagCache;
 
-    private RTree<Region, Geometry> regionRTree;
+    // Ordered with the highest priority first
+    private volatile Region[] globalRegions = new Region[0];
 
     public RegionisedWorldSet() {
         this(null);
     }
 
     public RegionisedWorldSet(@Nullable Key worldId) {
+        this(worldId, WorldSettings.DEFAULT);
+    }
+
+    public RegionisedWorldSet(@Nullable Key worldId, WorldSettings settings) {
         this.worldId = worldId;
         this.regions = ConcurrentHashMap.newKeySet();
-        this.regionRTree = RTree.dimensions(3).create();
-        this.regionGeometries = new ConcurrentHashMap<>();
+        this.regionIndex = settings.indexType().create();
+        this.tracked = new ConcurrentHashMap<>();
+        this.flagCache =
+                settings.flagCacheSize() == 0 ? null : new FlagCache(settings.flagCacheSize());
     }
 
     @Override
@@ -82,42 +99,237 @@ public final class RegionisedWorldSet implements RegionisedWorld {
     public RegionQuery.FilterableRegionResult<RegionQuery.Position> query(
             RegionQuery.Position position) {
         Vector3dc pos = position.position();
+        return position.resultBuilder()
+                .query(position)
+                .result(query(pos.x(), pos.y(), pos.z()))
+                .build();
+    }
 
-        // Query the RTree for regions that might contain this point
-        Rectangle pointRect = Rectangle.create(
-                (float) pos.x(),
-                (float) pos.y(),
-                (float) pos.z(), // min coords
-                (float) pos.x(),
-                (float) pos.y(),
-                (float) pos.z() // max coords (same as min for point)
-                );
+    @Override
+    public SortedRegionView query(double x, double y, double z) {
+        final Region[] globals = this.globalRegions;
+        final RegionBuffer buffer = SCRATCH.get();
+        buffer.clear();
 
         // Get all regions that might contain this point
-        LinkedHashSet<Region> result = new LinkedHashSet<>();
-        for (Entry<Region, Geometry> entry : regionRTree.search(pointRect)) {
-            Region region = entry.value();
+        regionIndex.search(x, y, z, buffer);
+        int size = 0;
+        for (int i = 0; i < buffer.size(); i++) {
+            Region region = buffer.get(i);
             // Double-check the region actually contains the point
-            if (region.area().contains(pos)) {
-                result.add(region);
+            if (region.area().contains(x, y, z)) {
+                buffer.set(size++, region);
             }
         }
+        buffer.truncate(size);
 
-        // Add global regions
-        for (Region region : regions) {
-            if (region.isGlobal()) {
-                result.add(region);
+        if (size == 0 && globals.length == 0) {
+            return SortedRegionView.EMPTY;
+        }
+
+        // Merge in the global regions, both are already ordered by priority
+        for (Region global : globals) {
+            buffer.addSorted(global);
+        }
+        return new SortedRegionView(buffer.drain());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> queryFlag(int x, int y, int z, RegionQuery.Flag<T> flag) {
+        final FlagCache cache = this.flagCache;
+        if (cache == null) {
+            return query(x, y, z).query(flag).result();
+        }
+
+        final long position = PackedPositions.pack(x, y, z);
+        final boolean player = flag.player().isPresent();
+        final Optional<?> cached = cache.get(position, flag.flag(), player);
+        if (cached != null) {
+            return (Optional<T>) cached;
+        }
+
+        final long generation = cache.generation();
+        final SortedRegionView regions = query(x, y, z);
+        final Optional<T> value = regions.query(flag).result();
+        // Results that depend on whether the player is a member can't be shared between players
+        if (!player || !isMembershipSensitive(regions, flag.flag())) {
+            cache.put(generation, position, flag.flag(), player, value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean test(
+            int x,
+            int y,
+            int z,
+            RegistryRegionFlag<Boolean> flag,
+            @Nullable UUID player,
+            boolean def) {
+        final FlagCache cache = this.flagCache;
+        final long position = PackedPositions.pack(x, y, z);
+        long generation = 0;
+        if (cache != null) {
+            final byte cached = cache.getState(position, flag, player != null);
+            if (cached != FlagCache.MISSING) {
+                return cached == FlagCache.NOT_SET ? def : cached == FlagCache.TRUE;
             }
+            generation = cache.generation();
         }
 
-        // Sort by priority (reverse natural order)
-        List<Region> sorted = new ArrayList<>(result);
-        sorted.sort(Comparator.reverseOrder());
+        final Region[] globals = this.globalRegions;
+        final RegionBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        regionIndex.search(x, y, z, buffer);
 
-        return position.resultBuilder()
-                .query(position)
-                .result(new LinkedHashSet<>(sorted))
-                .build();
+        // Walk the candidates and the global regions together, both are already ordered by priority
+        TriState state = TriState.NOT_SET;
+        boolean membershipSensitive = false;
+        int candidate = 0, global = 0;
+        while (candidate < buffer.size() || global < globals.length) {
+            final Region region;
+            if (global == globals.length
+                    || (candidate < buffer.size()
+                            && buffer.get(candidate).priority() >= globals[global].priority())) {
+                region = buffer.get(candidate++);
+                if (!region.area().contains(x, y, z)) {
+                    continue;
+                }
+            } else {
+                region = globals[global++];
+            }
+
+            if (cache != null && player != null && !membershipSensitive) {
+                membershipSensitive = isMembershipSensitive(region, flag);
+            }
+            state = region.test(flag, player);
+            if (state != TriState.NOT_SET) {
+                break;
+            }
+        }
+        buffer.clear();
+
+        // Results that depend on whether the player is a member can't be shared between players
+        if (cache != null && !membershipSensitive) {
+            final byte cached =
+                    switch (state) {
+                        case TRUE -> FlagCache.TRUE;
+                        case FALSE -> FlagCache.FALSE;
+                        case NOT_SET -> FlagCache.NOT_SET;
+                    };
+            cache.putState(generation, position, flag, player != null, cached);
+        }
+        return state == TriState.NOT_SET ? def : state == TriState.TRUE;
+    }
+
+    @Override
+    public BitSet queryDenied(long[] positions, RegionQuery.Flag<Boolean> flag) {
+        final BitSet denied = new BitSet(positions.length);
+        if (positions.length == 0) {
+            return denied;
+        }
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (long position : positions) {
+            final int x = PackedPositions.unpackX(position);
+            final int y = PackedPositions.unpackY(position);
+            final int z = PackedPositions.unpackZ(position);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        // Fetch the candidates of every position at once
+        final Region[] globals = this.globalRegions;
+        final RegionBuffer buffer = SCRATCH.get();
+        buffer.clear();
+        regionIndex.search(minX, minY, minZ, maxX, maxY, maxZ, buffer);
+        for (Region global : globals) {
+            buffer.addSorted(global);
+        }
+        final Region[] candidates = buffer.drain();
+
+        // The value of the flag within a region doesn't depend on the position,
+        // so resolve it lazily once per candidate
+        final UUID player = flag.player().orElse(null);
+        final byte[] values = new byte[candidates.length];
+        for (int i = 0; i < positions.length; i++) {
+            final int x = PackedPositions.unpackX(positions[i]);
+            final int y = PackedPositions.unpackY(positions[i]);
+            final int z = PackedPositions.unpackZ(positions[i]);
+            for (int candidate = 0; candidate < candidates.length; candidate++) {
+                final Region region = candidates[candidate];
+                if (!region.isGlobal() && !region.area().contains(x, y, z)) {
+                    continue;
+                }
+
+                byte value = values[candidate];
+                if (value == UNRESOLVED) {
+                    value = switch (region.test(flag.flag(), player)) {
+                        case TRUE -> ALLOWED;
+                        case FALSE -> DENIED;
+                        case NOT_SET -> ABSENT;
+                    };
+                    values[candidate] = value;
+                }
+
+                // The highest priority region with the flag decides
+                if (value != ABSENT) {
+                    if (value == DENIED) {
+                        denied.set(i);
+                    }
+                    break;
+                }
+            }
+        }
+        return denied;
+    }
+
+    private static boolean isMembershipSensitive(
+            SortedRegionView regions, RegistryRegionFlag<?> flag) {
+        for (int i = 0; i < regions.size(); i++) {
+            final Region region = regions.get(i);
+            if (region.getFlag(flag).isPresent()) {
+                // The first region with the flag decides the result
+                return isMembershipSensitive(region, flag);
+            }
+
+            if (isMembershipSensitive(region, flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMembershipSensitive(Region region, RegistryRegionFlag<?> flag) {
+        final Optional<? extends MutableRegionFlag<?>> own = region.getFlag(flag);
+        if (own.isPresent()) {
+            return own.get() instanceof GroupedMutableRegionFlag<?>;
+        }
+        return !region.isGlobal() && hasGroupedAncestor(region, flag);
+    }
+
+    private static boolean hasGroupedAncestor(Region region, RegistryRegionFlag<?> flag) {
+        for (Region parent : region.parents()) {
+            if (parent.getFlag(flag).orElse(null) instanceof GroupedMutableRegionFlag<?>) {
+                return true;
+            }
+
+            if (!parent.isGlobal() && hasGroupedAncestor(parent, flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public FlagCacheStats flagCacheStats() {
+        return flagCache == null ? FlagCacheStats.DISABLED : flagCache.stats();
     }
 
     @Override
@@ -135,65 +347,101 @@ public final class RegionisedWorldSet implements RegionisedWorld {
     @Override
     public boolean add(Region region) {
         if (regions.add(region)) {
-            if (!region.isGlobal()) {
-                updateBoundingBox(region);
+            final TrackedRegion tracking = new TrackedRegion(region);
+            tracked.put(region, tracking);
+            region.addUpdateListener(tracking.regionListener);
+
+            if (region.isGlobal()) {
+                updateGlobalRegions();
+                invalidate(null);
+            } else {
+                // Keep the index up to date with area changes
+                final EncompassingArea area = (EncompassingArea) region.area();
+                area.addUpdateListener(tracking.areaListener);
+                tracking.updateBoundingBox();
             }
             return true;
         }
         return false;
     }
 
-    private void updateBoundingBox(Region region) {
-        if (!regions.contains(region)) {
-            return; // Region not in this set
+    @Override
+    public boolean addAll(Collection<? extends Region> regions) {
+        final Map<Region, int[]> boxes = new HashMap<>();
+        boolean global = false;
+        boolean changed = false;
+        for (Region region : regions) {
+            if (!this.regions.add(region)) {
+                continue;
+            }
+
+            changed = true;
+            final TrackedRegion tracking = new TrackedRegion(region);
+            tracked.put(region, tracking);
+            region.addUpdateListener(tracking.regionListener);
+            if (region.isGlobal()) {
+                global = true;
+                continue;
+            }
+
+            final EncompassingArea area = (EncompassingArea) region.area();
+            area.addUpdateListener(tracking.areaListener);
+            synchronized (tracking) {
+                tracking.box = createBoundingBox(area);
+                if (tracking.box != null) {
+                    boxes.put(region, tracking.box);
+                }
+            }
         }
 
-        if (region.isGlobal()) {
-            throw new IllegalArgumentException("Cannot update global region");
+        // Build the index in one pass, and invalidate the cache once
+        regionIndex.putAll(boxes);
+        if (global) {
+            updateGlobalRegions();
+        }
+        if (changed) {
+            invalidate(null);
         }
+        return changed;
+    }
 
-        final EncompassingArea area = (EncompassingArea) region.area();
+    private synchronized void updateGlobalRegions() {
+        this.globalRegions = regions.stream()
+                .filter(Region::isGlobal)
+                .sorted(Comparator.reverseOrder())
+                .toArray(Region[]::new);
+    }
 
-        // Remove old entry
-        GeometryEntry oldGeometry = regionGeometries.remove(region);
-        if (oldGeometry != null) {
-            area.removeUpdateListener(oldGeometry.listener());
-            if (oldGeometry.geometry() != null) {
-                regionRTree = regionRTree.delete(region, oldGeometry.geometry());
-            }
+    /**
+     * Invalidates cached flags within a box.
+     *
+     * @param box the box to invalidate, or null to invalidate everything
+     */
+    private void invalidate(int @Nullable [] box) {
+        final FlagCache cache = this.flagCache;
+        if (cache == null) {
+            return;
         }
 
-        // Add new entry if the area is not empty
-        Rectangle newRect = createBoundingBox(area);
-        if (newRect != null) {
-            regionRTree = regionRTree.add(region, newRect);
+        if (box == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(box);
         }
-
-        // Always add an update listener
-        final Runnable updateListener = () -> updateBoundingBox(region);
-        area.addUpdateListener(updateListener);
-        regionGeometries.put(region, new GeometryEntry(newRect, updateListener));
     }
 
-    private @Nullable Rectangle createBoundingBox(Area area) {
+    static int @Nullable [] createBoundingBox(Area area) {
         // Handle empty areas
         if (area.points().isEmpty()) {
             return null;
         }
 
-        // We will represent all areas as a rectangle of the area it can be in
+        // We will represent all areas as a box of the area it can be in
         // We then use Area#contains to confirm that the point is in the area
         Vector3ic min = area.getMin();
         Vector3ic max = area.getMax();
 
-        return Rectangle.create(
-                (float) min.x(),
-                (float) min.y(),
-                (float) min.z(),
-                (float) max.x() + 1,
-                (float) max.y() + 1,
-                (float) max.z() + 1 // +1 to be inclusive of the max coordinate
-                );
+        return new int[] {min.x(), min.y(), min.z(), max.x(), max.y(), max.z()};
     }
 
     @Override
@@ -203,19 +451,94 @@ public final class RegionisedWorldSet implements RegionisedWorld {
         }
 
         if (regions.remove(region)) {
-            if (!region.isGlobal()) {
-                // Remove from RTree
-                GeometryEntry geometry = regionGeometries.remove(region);
-                if (geometry != null) {
+            final TrackedRegion tracking = tracked.remove(region);
+            if (tracking != null) {
+                region.removeUpdateListener(tracking.regionListener);
+                if (!region.isGlobal()) {
                     final EncompassingArea area = (EncompassingArea) region.area();
-                    area.removeUpdateListener(geometry.listener());
-                    if (geometry.geometry() != null) {
-                        regionRTree = regionRTree.delete(region, geometry.geometry());
-                    }
+                    area.removeUpdateListener(tracking.areaListener);
+                }
+            }
+
+            if (region.isGlobal()) {
+                updateGlobalRegions();
+                invalidate(null);
+            } else {
+                regionIndex.remove(region);
+                if (tracking != null) {
+                    invalidate(tracking.box());
                 }
             }
             return true;
         }
         return false;
     }
+
+    /**
+     * Listens to changes of a region within this world, keeping the index and flag cache in sync.
+     */
+    private final class TrackedRegion {
+
+        private final Region region;
+        private final Runnable regionListener = this::updateRegion;
+        private final Runnable areaListener = this::updateBoundingBox;
+
+        // The last indexed box and priority, so changes can be re-keyed and invalidated
+        private int @Nullable [] box;
+        private int priority;
+
+        private TrackedRegion(Region region) {
+            this.region = region;
+            this.priority = region.priority();
+        }
+
+        private synchronized int @Nullable [] box() {
+            return box;
+        }
+
+        private synchronized void updateBoundingBox() {
+            if (!regions.contains(region)) {
+                return; // Region not in this set
+            }
+
+            if (region.isGlobal()) {
+                throw new IllegalArgumentException("Cannot update global region");
+            }
+
+            // Only index the region if the area is not empty
+            final int[] oldBox = this.box;
+            this.box = createBoundingBox(region.area());
+            if (box != null) {
+                regionIndex.put(region, box);
+                invalidate(box);
+            } else {
+                regionIndex.remove(region);
+            }
+
+            if (oldBox != null) {
+                invalidate(oldBox);
+            }
+        }
+
+        private synchronized void updateRegion() {
+            if (!regions.contains(region)) {
+                return; // Region not in this set
+            }
+
+            // Re-key the region when its priority changes
+            final boolean reordered = region.priority() != priority;
+            priority = region.priority();
+            if (region.isGlobal()) {
+                if (reordered) {
+                    updateGlobalRegions();
+                }
+                invalidate(null);
+            } else if (box != null) {
+                if (reordered) {
+                    regionIndex.put(region, box);
+                }
+                invalidate(box);
+            }
+        }
+    }
 }
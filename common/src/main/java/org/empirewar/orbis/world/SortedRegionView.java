@@ -0,0 +1,152 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import net.kyori.adventure.util.TriState;
+
+import org.empirewar.orbis.flag.RegistryRegionFlag;
+import org.empirewar.orbis.query.RegionQuery;
+import org.empirewar.orbis.region.Region;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An immutable, array-backed set of regions ordered with the highest priority first.
+ * <p>
+ * This is the result of {@link RegionisedWorld#query(double, double, double)}. The order is
+ * captured at query time and does not change if a region's priority is later modified.
+ */
+public final class SortedRegionView extends AbstractSet<Region>
+        implements RegionQuery.Flag.Queryable {
+
+    /**
+     * A view of no regions.
+     */
+    public static final SortedRegionView EMPTY = new SortedRegionView(new Region[0]);
+
+    private final Region[] regions;
+
+    SortedRegionView(Region[] regions) {
+        this.regions = regions;
+    }
+
+    /**
+     * Gets the region at the specified index of this view.
+     *
+     * @param index the index, where 0 is the region of the highest priority
+     * @return the region at the index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Region get(int index) {
+        Objects.checkIndex(index, regions.length);
+        return regions[index];
+    }
+
+    /**
+     * Queries the flag in each region of this view, with the highest priority first.
+     * <p>
+     * This resolves the flag in the same way as
+     * {@link RegionQuery.FilterableRegionResult#query(RegionQuery.Flag)}.
+     * @param flag the flag query
+     * @return the value of the flag in the first region that has it
+     * @param <FR> the flag type
+     */
+    @Override
+    public <FR> RegionQuery.Result<Optional<FR>, RegionQuery.Flag<FR>> query(
+            RegionQuery.Flag<FR> flag) {
+        for (Region region : regions) {
+            final RegionQuery.Result<Optional<FR>, RegionQuery.Flag<FR>> query =
+                    region.query(flag);
+            if (query.result().isPresent()) {
+                return query;
+            }
+        }
+        return RegionQuery.Result.<Optional<FR>, RegionQuery.Flag<FR>>builder()
+                .query(flag)
+                .result(Optional.empty())
+                .build();
+    }
+
+    @Override
+    public TriState test(RegistryRegionFlag<Boolean> flag, @Nullable UUID player) {
+        for (Region region : regions) {
+            final TriState state = region.test(flag, player);
+            if (state != TriState.NOT_SET) {
+                return state;
+            }
+        }
+        return TriState.NOT_SET;
+    }
+
+    @Override
+    public int size() {
+        return regions.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return regions.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (Region region : regions) {
+            if (region.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Region> iterator() {
+        return new Iterator<>() {
+            private int cursor;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < regions.length;
+            }
+
+            @Override
+            public Region next() {
+                if (cursor >= regions.length) {
+                    throw new NoSuchElementException();
+                }
+                return regions[cursor++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return regions.clone();
+    }
+}
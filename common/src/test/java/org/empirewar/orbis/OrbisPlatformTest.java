@@ -0,0 +1,221 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParser;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.util.TriState;
+
+import org.empirewar.orbis.flag.DefaultFlags;
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.registry.OrbisRegistries;
+import org.empirewar.orbis.world.RegionisedWorld;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class OrbisPlatformTest {
+
+    private static final UUID PLAYER = UUID.fromString("8667ba71-b85a-4004-af54-457a9734eed7");
+    private static final Key FIRST = Key.key("orbis", "lazy_first");
+    private static final Key SECOND = Key.key("orbis", "lazy_second");
+    private static final Key THIRD = Key.key("orbis", "lazy_third");
+    private static final UUID FIRST_ID = UUID.randomUUID();
+    private static final UUID SECOND_ID = UUID.randomUUID();
+    private static final UUID THIRD_ID = UUID.randomUUID();
+
+    @TempDir
+    Path folder;
+
+    @AfterEach
+    void cleanup() {
+        for (String name : List.of(
+                "lazy_child",
+                "lazy_parent",
+                "lazy_shared",
+                "lazy_stored",
+                FIRST.asString(),
+                SECOND.asString(),
+                THIRD.asString())) {
+            OrbisRegistries.REGIONS.unregister(name);
+        }
+        OrbisAPI.reset();
+    }
+
+    @Test
+    void testLazyWorldRoundTrip() throws IOException {
+        // The child is in the first world and inherits from a region in the second,
+        // and the shared region is in both worlds
+        Files.writeString(folder.resolve("config.yml"), "lazy-world-regions: true\n");
+        Files.writeString(folder.resolve("worlds.yml"), """
+                worlds:
+                  "orbis:lazy_first":
+                    regions: [lazy_child, lazy_shared]
+                  "orbis:lazy_second":
+                    regions: [lazy_shared, lazy_parent]
+                """);
+        final Path regions = Files.createDirectories(folder.resolve("regions"));
+        writeRegion(regions, "lazy_child", "[\"lazy_parent\"]", PLAYER);
+        writeRegion(regions, "lazy_parent", "[]", null);
+        writeRegion(regions, "lazy_shared", "[]", null);
+        Files.writeString(regions.resolve("orbis-lazy_first.json"), """
+                {
+                  "type": "orbis:global",
+                  "name": "orbis:lazy_first",
+                  "flags": [
+                    {"region_flag_type": "orbis:mutable", "type": "orbis:can_break", "value": false}
+                  ]
+                }
+                """);
+        Files.writeString(
+                regions.resolve("orbis-lazy_second.json"),
+                "{\"type\": \"orbis:global\", \"name\": \"orbis:lazy_second\", \"flags\": []}");
+
+        final TestOrbisPlatform platform = new TestOrbisPlatform(folder);
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_child").isEmpty());
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_parent").isEmpty());
+
+        // Parents are loaded even though their world is not
+        platform.loadWorld(FIRST, FIRST_ID);
+        final Region parent = region("lazy_parent");
+        final Region shared = region("lazy_shared");
+        assertEquals(Set.of(parent), region("lazy_child").parents());
+        assertWorldLoaded(platform.getRegionisedWorld(FIRST));
+
+        // The shared region is in both worlds, so only the child and the global region go
+        platform.loadWorld(SECOND, SECOND_ID);
+        final Region child = region("lazy_child");
+        platform.saveWorld(FIRST, FIRST_ID);
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_child").isEmpty());
+        assertTrue(OrbisRegistries.REGIONS.get(FIRST.asString()).isEmpty());
+        assertSame(shared, region("lazy_shared"));
+        assertSame(parent, region("lazy_parent"));
+        assertTrue(platform.getRegionisedWorld(SECOND).regions().contains(shared));
+
+        // The child is loaded again, and inherits from the parent that stayed loaded
+        platform.loadWorld(FIRST, FIRST_ID);
+        final Region reloaded = region("lazy_child");
+        assertNotSame(child, reloaded);
+        assertEquals(Set.of(parent), reloaded.parents());
+        assertSame(shared, region("lazy_shared"));
+        assertWorldLoaded(platform.getRegionisedWorld(FIRST));
+
+        // The parent stays loaded while the child is, even once its own world unloads
+        platform.saveWorld(SECOND, SECOND_ID);
+        assertSame(parent, region("lazy_parent"));
+        platform.saveWorld(FIRST, FIRST_ID);
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_child").isEmpty());
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_shared").isEmpty());
+
+        platform.loadWorld(FIRST, FIRST_ID);
+        assertEquals(Set.of(region("lazy_parent")), region("lazy_child").parents());
+        assertWorldLoaded(platform.getRegionisedWorld(FIRST));
+    }
+
+    @Test
+    void testStoredRegionNameIsTaken() throws IOException {
+        Files.writeString(folder.resolve("config.yml"), "lazy-world-regions: true\n");
+        Files.writeString(folder.resolve("worlds.yml"), """
+                worlds:
+                  "orbis:lazy_third":
+                    regions: [lazy_stored]
+                """);
+        final Path regions = Files.createDirectories(folder.resolve("regions"));
+        writeRegion(regions, "lazy_stored", "[]", PLAYER);
+        Files.writeString(
+                regions.resolve("orbis-lazy_third.json"),
+                "{\"type\": \"orbis:global\", \"name\": \"orbis:lazy_third\", \"flags\": []}");
+
+        // Not in the registry, but the name cannot be claimed by a new region
+        final TestOrbisPlatform platform = new TestOrbisPlatform(folder);
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_stored").isEmpty());
+        assertTrue(platform.isRegionStored("lazy_stored"));
+        assertTrue(platform.isRegionStored(THIRD.asString()));
+        assertFalse(platform.isRegionStored("lazy_missing"));
+
+        // Regions of worlds that are not loaded are still exported
+        final Path export = folder.resolve("export");
+        platform.exportRegions(export);
+        assertEquals(
+                JsonParser.parseString(Files.readString(regions.resolve("lazy_stored.json"))),
+                JsonParser.parseString(Files.readString(export.resolve("lazy_stored.json"))));
+
+        platform.loadWorld(THIRD, THIRD_ID);
+        assertTrue(region("lazy_stored").isMember(PLAYER));
+        assertFalse(platform.isRegionStored("lazy_stored"));
+
+        platform.saveWorld(THIRD, THIRD_ID);
+        assertTrue(OrbisRegistries.REGIONS.get("lazy_stored").isEmpty());
+        assertTrue(platform.isRegionStored("lazy_stored"));
+    }
+
+    private static void assertWorldLoaded(RegionisedWorld world) {
+        final Region child = region("lazy_child");
+        final Region global = region(FIRST.asString());
+        assertTrue(child.isMember(PLAYER));
+        assertTrue(world.regions().containsAll(Set.of(child, region("lazy_shared"), global)));
+        assertEquals(TriState.FALSE, global.test(DefaultFlags.CAN_BREAK, null));
+        assertFalse(world.test(0, 0, 0, DefaultFlags.CAN_BREAK, null, true));
+    }
+
+    private static Region region(String name) {
+        return OrbisRegistries.REGIONS.get(name).orElseThrow();
+    }
+
+    private static void writeRegion(Path folder, String name, String parents, @Nullable UUID member)
+            throws IOException {
+        final String members = member == null
+                ? "[]"
+                : "[{\"player_id\": \"%s\", \"type\": \"orbis:player\"}]".formatted(member);
+        Files.writeString(folder.resolve(name + ".json"), """
+                {
+                  "type": "orbis:normal",
+                  "name": "%s",
+                  "priority": 1,
+                  "parents": %s,
+                  "members": %s,
+                  "flags": [],
+                  "area": {"type": "orbis:cuboid", "points": [
+                    {"x": 0, "y": 0, "z": 0}, {"x": 10, "y": 10, "z": 10}
+                  ]}
+                }
+                """
+                .formatted(name, parents, members));
+    }
+}
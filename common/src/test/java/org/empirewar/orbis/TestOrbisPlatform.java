@@ -25,6 +25,7 @@ package org.empirewar.orbis;
 
 import net.kyori.adventure.key.Key;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +40,17 @@ public class TestOrbisPlatform extends OrbisPlatform {
     private static final UUID OVERWORLD_ID =
             UUID.fromString("00000000-0000-0000-0000-000000000000");
 
+    private final @Nullable Path dataFolder;
+
     public TestOrbisPlatform() {
+        this(null);
+    }
+
+    /**
+     * @param dataFolder the data folder, or null for a shared folder in the temp directory
+     */
+    public TestOrbisPlatform(@Nullable Path dataFolder) {
+        this.dataFolder = dataFolder;
         load();
         try {
             loadRegions();
@@ -72,6 +83,10 @@ public class TestOrbisPlatform extends OrbisPlatform {
 
     @Override
     public Path dataFolder() {
+        if (dataFolder != null) {
+            return dataFolder;
+        }
+
         // Use a test-specific directory in the system temp directory
         Path testDir = Path.of(System.getProperty("java.io.tmpdir"), "orbis-test-data");
         try {
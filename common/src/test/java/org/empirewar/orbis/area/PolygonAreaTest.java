@@ -23,17 +23,21 @@
  */
 package org.empirewar.orbis.area;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.joml.Vector3i;
+import org.joml.Vector3ic;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class PolygonAreaTest {
@@ -79,4 +83,74 @@ public class PolygonAreaTest {
         assertTrue(area.contains(3, 0, 4));
         assertFalse(area.contains(7, 0, 3));
     }
+
+    @Test
+    @Order(2)
+    void testContainsConcave() {
+        // A U shape, open towards +Z, between y 10 and 20
+        final PolygonArea area = new PolygonArea(List.of(
+                new Vector3i(0, 10, 0),
+                new Vector3i(9, 20, 0),
+                new Vector3i(9, 10, 9),
+                new Vector3i(6, 10, 9),
+                new Vector3i(6, 10, 3),
+                new Vector3i(3, 10, 3),
+                new Vector3i(3, 10, 9),
+                new Vector3i(0, 10, 9)));
+
+        assertTrue(area.contains(1.5, 15, 6));
+        assertTrue(area.contains(7.5, 15, 6));
+        // Inside the gap of the U
+        assertFalse(area.contains(4.5, 15, 6));
+        // On edges and vertices, including the edges inside the gap
+        assertTrue(area.contains(3, 15, 6));
+        assertTrue(area.contains(4.5, 15, 3));
+        assertTrue(area.contains(6, 15, 3));
+        // Level with a vertex, so the ray passes through it
+        assertTrue(area.contains(1, 15, 3));
+        assertFalse(area.contains(-1, 15, 3));
+
+        // Outside the height of the points
+        assertFalse(area.contains(1.5, 9, 6));
+        assertFalse(area.contains(1.5, 21, 6));
+    }
+
+    @Test
+    @Order(3)
+    void testMaskMatchesEdges() {
+        final Random random = new Random(42);
+        for (int polygon = 0; polygon < 20; polygon++) {
+            // A random star shaped polygon, which is often concave
+            final List<Vector3ic> points = new ArrayList<>();
+            final int vertices = 3 + random.nextInt(60);
+            for (int i = 0; i < vertices; i++) {
+                final double angle = Math.PI * 2 * i / vertices;
+                final double radius = 5 + random.nextInt(60);
+                points.add(new Vector3i(
+                        (int) Math.round(Math.cos(angle) * radius),
+                        64,
+                        (int) Math.round(Math.sin(angle) * radius)));
+            }
+
+            final PolygonArea masked = new PolygonArea(points);
+            final PolygonArea unmasked;
+            try {
+                PolygonArea.maxMaskSize(0);
+                unmasked = new PolygonArea(points);
+            } finally {
+                PolygonArea.maxMaskSize(PolygonArea.DEFAULT_MAX_MASK_SIZE);
+            }
+
+            for (int i = 0; i < 2000; i++) {
+                // Whole and half positions land on edges and vertices often
+                final double x = random.nextBoolean()
+                        ? random.nextInt(140) - 70
+                        : random.nextDouble() * 140 - 70;
+                final double z = random.nextBoolean()
+                        ? random.nextInt(140) - 70 + 0.5
+                        : random.nextDouble() * 140 - 70;
+                assertEquals(unmasked.contains(x, 64, z), masked.contains(x, 64, z));
+            }
+        }
+    }
 }
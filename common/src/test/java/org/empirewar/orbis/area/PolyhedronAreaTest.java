@@ -23,17 +23,21 @@
  */
 package org.empirewar.orbis.area;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.joml.Vector3i;
+import org.joml.Vector3ic;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class PolyhedronAreaTest {
@@ -115,4 +119,31 @@ public class PolyhedronAreaTest {
         assertFalse(area.contains(5, 0, 2)); // Outside x bounds
         assertFalse(area.contains(2, 2, 5)); // Outside z bounds
     }
+
+    @Test
+    @Order(2)
+    void testContainsOctahedron() {
+        // An octahedron far from the origin, |dx| + |dy| + |dz| <= 10 around the middle
+        final int midX = 1_000_000, midY = 64, midZ = -2_000_000;
+        final List<Vector3ic> points = new ArrayList<>();
+        // The first points are on a line, and some points are inside the hull
+        points.add(new Vector3i(midX - 10, midY, midZ));
+        points.add(new Vector3i(midX, midY, midZ));
+        points.add(new Vector3i(midX + 10, midY, midZ));
+        points.add(new Vector3i(midX + 2, midY + 3, midZ - 1));
+        points.add(new Vector3i(midX, midY - 10, midZ));
+        points.add(new Vector3i(midX, midY + 10, midZ));
+        points.add(new Vector3i(midX, midY, midZ - 10));
+        points.add(new Vector3i(midX, midY, midZ + 10));
+        final PolyhedralArea area = new PolyhedralArea(points);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            final double dx = random.nextInt(25) - 12 + (random.nextBoolean() ? 0 : 0.5);
+            final double dy = random.nextInt(25) - 12;
+            final double dz = random.nextInt(25) - 12 + (random.nextBoolean() ? 0 : 0.25);
+            final boolean expected = Math.abs(dx) + Math.abs(dy) + Math.abs(dz) <= 10;
+            assertEquals(expected, area.contains(midX + dx, midY + dy, midZ + dz));
+        }
+    }
 }
@@ -23,16 +23,24 @@
  */
 package org.empirewar.orbis.flag;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import net.kyori.adventure.util.TriState;
+
 import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.member.FlagMemberGroup;
+import org.empirewar.orbis.member.PlayerMember;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.GlobalRegion;
 import org.empirewar.orbis.region.Region;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 public class RegionFlagTest {
 
@@ -81,4 +89,73 @@ public class RegionFlagTest {
         assertTrue(priorityResult.isPresent());
         assertTrue(priorityResult.get());
     }
+
+    @Test
+    void testGroupedFlagsFallBackToParents() {
+        Region region = new Region("test", new CuboidArea());
+        Region parent = new Region("parent", new CuboidArea());
+        Region flagless = new Region("flagless", new CuboidArea());
+        flagless.priority(100);
+        region.addParent(parent);
+        region.addParent(flagless);
+
+        final UUID member = UUID.randomUUID();
+        region.addMember(new PlayerMember(member));
+        region.addGroupedFlag(DefaultFlags.CAN_BREAK, Set.of(FlagMemberGroup.MEMBER))
+                .setValue(true);
+        parent.addFlag(DefaultFlags.CAN_BREAK).setValue(false);
+
+        // Inherited from the first parent that has the flag, even if a parent before it does not
+        final RegionQuery.Flag.Builder<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.CAN_BREAK);
+        assertEquals(Optional.of(true), region.query(query.player(member)).result());
+        assertEquals(
+                Optional.of(false), region.query(query.player(UUID.randomUUID())).result());
+
+        // Groups are ignored when not querying for a player
+        assertEquals(
+                Optional.of(true),
+                region.query(RegionQuery.Flag.builder(DefaultFlags.CAN_BREAK)).result());
+
+        // Changes to parents are picked up
+        parent.setFlag(DefaultFlags.CAN_BREAK, true);
+        assertEquals(
+                Optional.of(true), region.query(query.player(UUID.randomUUID())).result());
+        region.removeParent(parent);
+        assertEquals(Optional.empty(), region.query(query.player(UUID.randomUUID())).result());
+    }
+
+    @Test
+    void testBooleanFlags() {
+        Region region = new Region("test", new CuboidArea());
+        Region parent = new Region("parent", new CuboidArea());
+        region.addParent(parent);
+        assertEquals(TriState.NOT_SET, region.test(DefaultFlags.CAN_BREAK, null));
+
+        parent.addFlag(DefaultFlags.CAN_BREAK).setValue(false);
+        region.addFlag(DefaultFlags.CAN_PLACE).setValue(true);
+        assertEquals(TriState.FALSE, region.test(DefaultFlags.CAN_BREAK, null));
+        assertEquals(TriState.TRUE, region.test(DefaultFlags.CAN_PLACE, null));
+
+        final UUID member = UUID.randomUUID();
+        region.addMember(new PlayerMember(member));
+        region.addGroupedFlag(DefaultFlags.CAN_BREAK, Set.of(FlagMemberGroup.MEMBER))
+                .setValue(true);
+        assertEquals(TriState.TRUE, region.test(DefaultFlags.CAN_BREAK, member));
+        assertEquals(TriState.FALSE, region.test(DefaultFlags.CAN_BREAK, UUID.randomUUID()));
+        assertEquals(TriState.TRUE, region.test(DefaultFlags.CAN_BREAK, null));
+
+        // Results must match the generic query
+        for (UUID player : new UUID[] {member, UUID.randomUUID()}) {
+            for (RegistryRegionFlag<Boolean> flag : List.of(
+                    DefaultFlags.CAN_BREAK, DefaultFlags.CAN_PLACE, DefaultFlags.CAN_PVP)) {
+                final Optional<Boolean> expected = region.query(
+                                RegionQuery.Flag.builder(flag).player(player))
+                        .result();
+                assertEquals(
+                        expected.map(TriState::byBoolean).orElse(TriState.NOT_SET),
+                        region.test(flag, player));
+            }
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.member;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import net.kyori.adventure.key.Key;
+
+import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.registry.ResolvableStringOrbisRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+public class MemberIndexTest {
+
+    @Test
+    void testIndexFollowsRegistryAndMembers() {
+        final ResolvableStringOrbisRegistry<Region> registry =
+                new ResolvableStringOrbisRegistry<>(Key.key("orbis", "test_regions"));
+        final MemberIndex index = new MemberIndex();
+        registry.addListener(index);
+
+        final UUID player = UUID.randomUUID();
+        final UUID other = UUID.randomUUID();
+        final Region first = new Region("first", new CuboidArea());
+        final Region second = new Region("second", new CuboidArea());
+        first.addMember(new PlayerMember(player));
+        first.addMember(new PermissionMember("orbis.test"));
+        registry.register(first.name(), first);
+        registry.register(second.name(), second);
+        assertEquals(Set.of(first), index.regions(player));
+        assertEquals(Set.of(), index.regions(other));
+
+        // Member changes after registration are picked up
+        second.addMember(new PlayerMember(player));
+        second.addMember(new PlayerMember(other));
+        assertEquals(Set.of(first, second), index.regions(player));
+        assertEquals(Set.of(second), index.regions(other));
+
+        second.removeMember(new PlayerMember(other));
+        assertEquals(Set.of(), index.regions(other));
+        assertTrue(second.isMember(player));
+        assertFalse(second.isMember(other));
+
+        registry.unregister(first.name());
+        assertEquals(Set.of(second), index.regions(player));
+        first.addMember(new PlayerMember(other));
+        assertEquals(Set.of(), index.regions(other));
+    }
+}
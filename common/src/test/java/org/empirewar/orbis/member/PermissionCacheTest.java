@@ -0,0 +1,77 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.member;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PermissionCacheTest {
+
+    @Test
+    void testCachesUntilInvalidated() {
+        final AtomicInteger lookups = new AtomicInteger();
+        final PermissionCache cache = new PermissionCache(Duration.ofMinutes(1), (player, node) -> {
+            lookups.incrementAndGet();
+            return node.equals("orbis.allowed");
+        });
+
+        final UUID player = UUID.randomUUID();
+        assertTrue(cache.hasPermission(player, "orbis.allowed"));
+        assertTrue(cache.hasPermission(player, "orbis.allowed"));
+        assertFalse(cache.hasPermission(player, "orbis.denied"));
+        assertFalse(cache.hasPermission(player, "orbis.denied"));
+        assertEquals(2, lookups.get());
+
+        final PermissionCacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+
+        cache.invalidate(player);
+        assertTrue(cache.hasPermission(player, "orbis.allowed"));
+        assertEquals(3, lookups.get());
+    }
+
+    @Test
+    void testDisabled() {
+        final AtomicInteger lookups = new AtomicInteger();
+        final PermissionCache cache = new PermissionCache(Duration.ZERO, (player, node) -> {
+            lookups.incrementAndGet();
+            return true;
+        });
+
+        final UUID player = UUID.randomUUID();
+        cache.hasPermission(player, "orbis.allowed");
+        cache.hasPermission(player, "orbis.allowed");
+        assertEquals(2, lookups.get());
+        assertEquals(PermissionCacheStats.DISABLED, cache.stats());
+    }
+}
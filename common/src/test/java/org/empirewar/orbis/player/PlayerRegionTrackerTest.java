@@ -0,0 +1,89 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.player;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import net.kyori.adventure.key.Key;
+
+import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.region.GlobalRegion;
+import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.world.RegionisedWorldSet;
+import org.empirewar.orbis.world.SortedRegionView;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+public class PlayerRegionTrackerTest {
+
+    @Test
+    void testTransitions() {
+        final RegionisedWorldSet world = new RegionisedWorldSet(Key.key("orbis:world"));
+        final Region global = new GlobalRegion(world);
+        final Region region = new Region("test", new CuboidArea());
+        region.area().addPoint(new Vector3i());
+        region.area().addPoint(new Vector3i(5, 5, 5));
+        world.add(global);
+        world.add(region);
+
+        final PlayerRegionTracker tracker = new PlayerRegionTracker();
+        final UUID player = UUID.randomUUID();
+        assertEquals(SortedRegionView.EMPTY, tracker.regions(player));
+
+        // Untracked players are already in the regions they start in
+        PlayerRegionTracker.Transition transition = tracker.move(player, world, 10, 1, 10);
+        assertNotNull(transition);
+        assertTrue(transition.entered().isEmpty());
+        assertTrue(transition.left().isEmpty());
+        tracker.apply(player, transition);
+        assertEquals(List.of(global), List.copyOf(tracker.regions(player)));
+
+        // Moving within the same block doesn't query again
+        assertNull(tracker.move(player, world, 10.5, 1.5, 10.5));
+
+        transition = tracker.move(player, world, 1, 1, 1);
+        assertNotNull(transition);
+        assertEquals(List.of(region), transition.entered());
+        assertTrue(transition.left().isEmpty());
+
+        // Cancelled movements are not recorded
+        assertEquals(List.of(global), List.copyOf(tracker.regions(player)));
+        tracker.apply(player, transition);
+        assertEquals(List.of(region, global), List.copyOf(tracker.regions(player)));
+
+        transition = tracker.move(player, world, 10, 1, 10);
+        assertNotNull(transition);
+        assertTrue(transition.entered().isEmpty());
+        assertEquals(List.of(region), transition.left());
+
+        tracker.remove(player);
+        assertEquals(SortedRegionView.EMPTY, tracker.regions(player));
+    }
+}
@@ -24,11 +24,21 @@
 package org.empirewar.orbis.region;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.flag.DefaultFlags;
+import org.empirewar.orbis.flag.MutableRegionFlag;
+import org.empirewar.orbis.member.PlayerMember;
+import org.joml.Vector3i;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.UUID;
+
 public class RegionTest {
 
     @Test
@@ -53,4 +63,70 @@ public class RegionTest {
         assertThrows(IllegalStateException.class, () -> region.removeParent(other));
         assertThrows(IllegalStateException.class, region::area);
     }
+
+    @Test
+    void testFlagStorage() {
+        Region region = new Region("test", new CuboidArea());
+        assertFalse(region.hasFlag(DefaultFlags.CAN_BREAK));
+
+        final MutableRegionFlag<Boolean> canBreak = region.addFlag(DefaultFlags.CAN_BREAK);
+        final MutableRegionFlag<Boolean> canPlace = region.addFlag(DefaultFlags.CAN_PLACE);
+        assertTrue(region.hasFlag(DefaultFlags.CAN_BREAK));
+        assertEquals(canBreak, region.getFlag(DefaultFlags.CAN_BREAK).orElseThrow());
+        assertEquals(2, region.flags.values().size());
+
+        // Replacing a flag keeps a single entry
+        final MutableRegionFlag<Boolean> replaced = region.addFlag(DefaultFlags.CAN_BREAK);
+        assertEquals(replaced, region.getFlag(DefaultFlags.CAN_BREAK).orElseThrow());
+        assertEquals(2, region.flags.values().size());
+
+        assertTrue(region.removeFlag(DefaultFlags.CAN_BREAK));
+        assertFalse(region.removeFlag(DefaultFlags.CAN_BREAK));
+        assertFalse(region.hasFlag(DefaultFlags.CAN_BREAK));
+        assertEquals(List.of(canPlace), region.flags.values());
+    }
+
+    @Test
+    void testDirtyTracking() {
+        Region parent = new Region("parent", new CuboidArea());
+        Region region = new Region("test", new CuboidArea());
+        assertTrue(region.isDirty(), "New regions should be saved");
+
+        region.addParent(parent);
+        region.clearDirty();
+        parent.clearDirty();
+        assertFalse(region.isDirty());
+
+        // Changes to a parent are saved with the parent
+        parent.priority(5);
+        assertTrue(parent.isDirty());
+        assertFalse(region.isDirty());
+
+        region.addFlag(DefaultFlags.CAN_BREAK);
+        assertTrue(region.isDirty());
+        region.clearDirty();
+
+        region.setFlag(DefaultFlags.CAN_BREAK, false);
+        assertTrue(region.isDirty());
+        region.clearDirty();
+
+        region.addMember(new PlayerMember(UUID.randomUUID()));
+        assertTrue(region.isDirty());
+        region.clearDirty();
+
+        // Setting the same priority is not a change
+        region.priority(region.priority());
+        assertFalse(region.isDirty());
+        region.priority(region.priority() + 1);
+        assertTrue(region.isDirty());
+        region.clearDirty();
+
+        region.area().addPoint(new Vector3i(1, 2, 3));
+        assertTrue(region.isDirty());
+        region.clearDirty();
+        assertFalse(region.isDirty());
+
+        region.markDirty();
+        assertTrue(region.isDirty());
+    }
 }
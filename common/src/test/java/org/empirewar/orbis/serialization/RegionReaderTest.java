@@ -0,0 +1,187 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.stream.JsonReader;
+
+import org.empirewar.orbis.OrbisAPI;
+import org.empirewar.orbis.TestOrbisPlatform;
+import org.empirewar.orbis.area.PolygonArea;
+import org.empirewar.orbis.area.SphericalArea;
+import org.empirewar.orbis.member.PermissionMember;
+import org.empirewar.orbis.region.Region;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RegionReaderTest {
+
+    private static final UUID PLAYER = UUID.fromString("8667ba71-b85a-4004-af54-457a9734eed7");
+
+    @TempDir
+    Path folder;
+
+    @BeforeAll
+    void setupPlatform() {
+        // For logging
+        new TestOrbisPlatform();
+    }
+
+    @AfterAll
+    static void cleanup() {
+        OrbisAPI.reset();
+    }
+
+    @Test
+    void testReadPolygon() {
+        final StringBuilder points = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            if (i > 0) points.append(',');
+            // A rough circle, so that every point is distinct
+            final int x = (int) Math.round(Math.cos(i * Math.PI / 150) * 1000);
+            final int z = (int) Math.round(Math.sin(i * Math.PI / 150) * 1000);
+            points.append("{\"x\":").append(x).append(",\"y\":64,\"z\":").append(z).append('}');
+        }
+
+        // Written in the order the codecs write it, with the type and version last
+        final Region region = read("""
+                {
+                  "name": "polygon",
+                  "parents": [],
+                  "members": [
+                    {"player_id": "%s", "type": "orbis:player"},
+                    {"permission": "orbis.test", "type": "orbis:permission"}
+                  ],
+                  "flags": [],
+                  "area": {"points": [%s], "type": "orbis:polygon"},
+                  "priority": 7,
+                  "type": "orbis:normal",
+                  "data_version": 1
+                }
+                """
+                .formatted(PLAYER, points));
+
+        assertEquals("polygon", region.name());
+        assertEquals(7, region.priority());
+        assertTrue(region.isMember(PLAYER));
+        assertTrue(region.members().contains(new PermissionMember("orbis.test")));
+
+        final PolygonArea area = assertInstanceOf(PolygonArea.class, region.area());
+        assertEquals(300, area.points().size());
+        assertEquals(new Vector3i(-1000, 64, -1000), area.getMin());
+        assertEquals(new Vector3i(1000, 64, 1000), area.getMax());
+        assertTrue(area.contains(0, 64, 0));
+    }
+
+    @Test
+    void testReadSphere() {
+        final Region region = read("""
+                {
+                  "type": "orbis:normal",
+                  "name": "sphere",
+                  "priority": 2,
+                  "parents": [],
+                  "members": [],
+                  "flags": [],
+                  "area": {
+                    "type": "orbis:sphere",
+                    "center": {"x": 0, "y": 64, "z": 0},
+                    "radius": 4.5
+                  }
+                }
+                """);
+
+        final SphericalArea area = assertInstanceOf(SphericalArea.class, region.area());
+        assertEquals(new Vector3i(0, 64, 0), area.getCenter());
+        assertEquals(4.5, area.getRadius());
+    }
+
+    @Test
+    void testFallsBack() {
+        // Older data goes through the data fixer
+        assertNull(RegionReader.read(reader("""
+                {"type": "orbis:normal", "name": "old", "data_version": 0}
+                """)));
+        // Missing fields and unknown types are reported by the codecs
+        assertNull(RegionReader.read(reader("""
+                {"type": "orbis:normal", "name": "incomplete", "flags": []}
+                """)));
+        assertNull(RegionReader.read(reader("""
+                {"type": "orbis:unknown", "name": "unknown", "flags": []}
+                """)));
+    }
+
+    @Test
+    void testJsonStorage() throws IOException {
+        final JsonRegionStorage storage = new JsonRegionStorage(folder);
+        assertNull(storage.readRegion("missing"));
+
+        Files.writeString(folder.resolve("stored.json"), """
+                {
+                  "type": "orbis:normal",
+                  "name": "stored",
+                  "priority": 3,
+                  "parents": [],
+                  "members": [],
+                  "flags": [],
+                  "area": {"type": "orbis:cuboid", "points": [
+                    {"x": 0, "y": 0, "z": 0}, {"x": 10, "y": 10, "z": 10}
+                  ]}
+                }
+                """);
+        final RegionReader.PendingRegion pending = storage.readRegion("stored");
+        assertNotNull(pending);
+        final Region region = pending.finish();
+        assertNotNull(region);
+        assertTrue(region.area().contains(5, 5, 5));
+    }
+
+    private static Region read(String json) {
+        final RegionReader.PendingRegion pending = RegionReader.read(reader(json));
+        assertNotNull(pending);
+        final Region region = pending.finish();
+        assertNotNull(region);
+        return region;
+    }
+
+    private static JsonReader reader(String json) {
+        return new JsonReader(new StringReader(json));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import org.empirewar.orbis.OrbisAPI;
+import org.empirewar.orbis.TestOrbisPlatform;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class RegionStorageTest {
+
+    private static final String REGION = """
+            {
+              "type": "orbis:region",
+              "name": "test",
+              "priority": 5,
+              "parents": ["parent", "other"],
+              "flags": [
+                {"key": "orbis:can_break", "value": false, "groups": ["NONMEMBER"]},
+                {"key": "orbis:can_place", "value": true, "groups": ["NONMEMBER"]}
+              ],
+              "area": {"type": "orbis:sphere", "radius": 5.5, "points": [[-3, 64, 1200000]]},
+              "data_version": 3
+            }
+            """;
+
+    @TempDir
+    Path folder;
+
+    @BeforeAll
+    void setupPlatform() {
+        // For logging
+        new TestOrbisPlatform();
+    }
+
+    @AfterAll
+    static void cleanup() {
+        OrbisAPI.reset();
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionStorageType.class)
+    void testRoundTrip(RegionStorageType type) throws IOException {
+        final RegionStorage storage = type.create(folder);
+        final JsonElement region = JsonParser.parseString(REGION);
+        assertEquals(List.of(), storage.list());
+        assertNull(storage.read("test"));
+
+        storage.write("test", region);
+        storage.write("orbis-global", JsonParser.parseString("{\"name\": \"orbis:global\"}"));
+        assertEquals(List.of("orbis-global", "test"), storage.list());
+        assertEquals(region, storage.read("test"));
+
+        storage.delete("test");
+        assertEquals(List.of("orbis-global"), storage.list());
+        assertNull(storage.read("test"));
+
+        storage.close();
+        assertEquals(List.of("orbis-global"), storage.list());
+        storage.close();
+    }
+
+    @Test
+    void testBinaryImportsJson() throws IOException {
+        final RegionStorage storage = RegionStorageType.BINARY.create(folder);
+        final JsonElement region = JsonParser.parseString(REGION);
+        Files.writeString(folder.resolve("test.json"), REGION);
+        assertEquals(List.of("test"), storage.list());
+
+        assertEquals(region, storage.read("test"));
+        assertFalse(Files.exists(folder.resolve("test.json")));
+        assertTrue(Files.exists(folder.resolve("test.dat")));
+        assertEquals(region, storage.read("test"));
+
+        // The binary file is smaller than the JSON written by the JSON storage
+        RegionStorageType.JSON.create(folder).write("test", region);
+        Files.move(folder.resolve("test.json"), folder.resolve("export.json"));
+        assertTrue(
+                Files.size(folder.resolve("test.dat")) < Files.size(folder.resolve("export.json")));
+    }
+
+    @Test
+    void testDatabase() throws IOException {
+        final RegionStorage storage = RegionStorageType.DATABASE.create(folder);
+        final Path file = folder.resolve(RegionDatabase.FILE_NAME);
+        final JsonElement region = JsonParser.parseString(REGION);
+        for (int i = 0; i < 500; i++) {
+            region.getAsJsonObject().addProperty("priority", i);
+            storage.write("test", region);
+        }
+        storage.write("other", region);
+        storage.delete("other");
+        assertEquals(region, storage.read("test"));
+        storage.close();
+
+        // A record cut short by a crash is discarded
+        final long sizeBefore = Files.size(file);
+        Files.write(file, new byte[] {0, 4, 't', 'e'}, StandardOpenOption.APPEND);
+        assertEquals(List.of("test"), storage.list());
+        assertEquals(region, storage.read("test"));
+
+        // Reopening compacts the old versions of the region away
+        assertTrue(Files.size(file) < sizeBefore / 10);
+        storage.close();
+        assertEquals(List.of("test"), storage.list());
+        assertEquals(region, storage.read("test"));
+        storage.close();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegionWriteQueueTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testCoalescesWrites() throws IOException {
+        final RegionWriteQueue queue = new RegionWriteQueue();
+        // Long enough that nothing is written before the flush
+        queue.delay(Duration.ofHours(1));
+
+        final Path file = folder.resolve("test.json");
+        final List<String> written = new ArrayList<>();
+        queue.queue("test", () -> written.add("first"));
+        queue.queue("test", () -> written.add("second"));
+        queue.queue("other", () -> written.add("other"));
+        assertTrue(written.isEmpty());
+
+        queue.flush();
+        assertEquals(2, written.size());
+        assertTrue(written.contains("second"));
+        assertFalse(written.contains("first"));
+
+        // Nothing is written twice
+        queue.flush();
+        assertEquals(2, written.size());
+
+        queue.queue("test", () -> RegionWriteQueue.writeAtomically(file, "{}".getBytes()));
+        queue.flush();
+        assertEquals("{}", Files.readString(file));
+        assertFalse(Files.exists(folder.resolve("test.json.tmp")));
+    }
+
+    @Test
+    void testFlushesOnlySpecifiedKeys() {
+        final RegionWriteQueue queue = new RegionWriteQueue();
+        queue.delay(Duration.ofHours(1));
+
+        final List<String> written = new ArrayList<>();
+        queue.queue("test", () -> written.add("test"));
+        queue.queue("other", () -> written.add("other"));
+        queue.flush(List.of("test", "missing"));
+        assertEquals(List.of("test"), written);
+
+        // Keys with nothing pending are skipped
+        queue.flush(List.of("test"));
+        assertEquals(List.of("test"), written);
+
+        queue.flush();
+        assertEquals(List.of("test", "other"), written);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of Orbis, licensed under the MIT License.
+ *
+ * Copyright (C) 2024 Empire War
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.empirewar.orbis.world;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.empirewar.orbis.area.CuboidArea;
+import org.empirewar.orbis.region.Region;
+import org.joml.Vector3i;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class RegionIndexTest {
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    void testSearchMatchesLinearScan(RegionIndexType type) {
+        final Random random = new Random(42);
+        final RegionIndex index = type.create();
+        final Map<Region, int[]> expected = new HashMap<>();
+
+        for (int i = 0; i < 500; i++) {
+            final Region region = new Region("region" + i, new CuboidArea());
+            region.priority(random.nextInt(10));
+            // Include some regions too large to be indexed by chunk
+            final int[] box = i % 50 == 0 ? hugeBox(random) : randomBox(random);
+            index.put(region, box);
+            expected.put(region, box);
+        }
+
+        // Move and remove some regions
+        final Region[] regions = expected.keySet().toArray(new Region[0]);
+        for (int i = 0; i < 100; i++) {
+            final Region region = regions[random.nextInt(regions.length)];
+            if (random.nextBoolean()) {
+                final int[] box = randomBox(random);
+                index.put(region, box);
+                expected.put(region, box);
+            } else {
+                assertEquals(expected.remove(region) != null, index.remove(region));
+            }
+        }
+
+        final RegionBuffer buffer = new RegionBuffer();
+        for (int i = 0; i < 1000; i++) {
+            final double x = random.nextDouble() * 256 - 128;
+            final double y = random.nextDouble() * 256 - 128;
+            final double z = random.nextDouble() * 256 - 128;
+
+            final Set<Region> linear = new HashSet<>();
+            expected.forEach((region, box) -> {
+                if (contains(box, x, y, z)) {
+                    linear.add(region);
+                }
+            });
+
+            index.search(x, y, z, buffer);
+            assertOrdered(buffer, linear);
+
+            // Search a box around the point too, such as the blocks of an explosion
+            final int minX = (int) Math.floor(x), minY = (int) Math.floor(y);
+            final int minZ = (int) Math.floor(z);
+            final int[] query = {
+                minX, minY, minZ, minX + random.nextInt(40), minY + 8, minZ + random.nextInt(40)
+            };
+            final Set<Region> intersecting = new HashSet<>();
+            expected.forEach((region, box) -> {
+                if (intersects(box, query)) {
+                    intersecting.add(region);
+                }
+            });
+
+            index.search(query[0], query[1], query[2], query[3], query[4], query[5], buffer);
+            assertOrdered(buffer, intersecting);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    void testRemove(RegionIndexType type) {
+        final RegionIndex index = type.create();
+        final Region region = new Region("test", new CuboidArea());
+        index.put(region, new int[] {0, 0, 0, 5, 5, 5});
+        assertTrue(index.remove(region));
+        assertFalse(index.remove(region));
+
+        final RegionBuffer buffer = new RegionBuffer();
+        index.search(1, 1, 1, buffer);
+        assertEquals(0, buffer.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    void testBoxEndsOnChunkEdge(RegionIndexType type) {
+        final RegionIndex index = type.create();
+        final Region region = new Region("test", new CuboidArea());
+        region.area().addPoint(new Vector3i(0, 0, 0));
+        region.area().addPoint(new Vector3i(15, 5, 15));
+        index.put(region, RegionisedWorldSet.createBoundingBox(region.area()));
+
+        // The last block of chunk 0 is in the region, but chunk 1 is not
+        final RegionBuffer buffer = new RegionBuffer();
+        index.search(15, 5, 15, buffer);
+        assertEquals(1, buffer.size());
+        buffer.clear();
+        index.search(16, 0, 0, 31, 5, 15, buffer);
+        assertEquals(0, buffer.size());
+        index.search(16.5, 0, 0, buffer);
+        assertEquals(0, buffer.size());
+    }
+
+    private static void assertOrdered(RegionBuffer buffer, Set<Region> expected) {
+        final Set<Region> found = new HashSet<>();
+        for (int j = 0; j < buffer.size(); j++) {
+            assertTrue(found.add(buffer.get(j)), "Region returned twice");
+            if (j > 0) {
+                assertTrue(
+                        buffer.get(j - 1).priority() >= buffer.get(j).priority(),
+                        "Regions should be ordered by priority");
+            }
+        }
+        buffer.clear();
+        assertEquals(expected, found);
+    }
+
+    private static int[] randomBox(Random random) {
+        final int x = random.nextInt(256) - 128;
+        final int y = random.nextInt(256) - 128;
+        final int z = random.nextInt(256) - 128;
+        final int size = random.nextInt(48) + 1;
+        return new int[] {x, y, z, x + size, y + random.nextInt(48) + 1, z + size};
+    }
+
+    private static int[] hugeBox(Random random) {
+        final int size = 2048 + random.nextInt(1024);
+        return new int[] {-size, -64, -size, size, 320, size};
+    }
+
+    private static boolean intersects(int[] box, int[] query) {
+        return query[3] >= box[0]
+                && query[4] >= box[1]
+                && query[5] >= box[2]
+                && query[0] <= box[3]
+                && query[1] <= box[4]
+                && query[2] <= box[5];
+    }
+
+    private static boolean contains(int[] box, double x, double y, double z) {
+        return x >= box[0]
+                && y >= box[1]
+                && z >= box[2]
+                && x <= box[3]
+                && y <= box[4]
+                && z <= box[5];
+    }
+}
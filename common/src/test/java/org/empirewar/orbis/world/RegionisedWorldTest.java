@@ -33,6 +33,8 @@ import net.kyori.adventure.key.Key;
 import org.empirewar.orbis.area.CuboidArea;
 import org.empirewar.orbis.area.EncompassingArea;
 import org.empirewar.orbis.flag.DefaultFlags;
+import org.empirewar.orbis.member.FlagMemberGroup;
+import org.empirewar.orbis.member.PlayerMember;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.GlobalRegion;
 import org.empirewar.orbis.region.Region;
@@ -42,10 +44,17 @@ import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class RegionisedWorldTest {
@@ -291,6 +300,301 @@ public class RegionisedWorldTest {
         }
     }
 
+    @Test
+    @Order(11)
+    void testPrimitivePointQuery() {
+        RegionisedWorldSet set = new RegionisedWorldSet(Key.key("orbis:world"));
+        final Region global = new GlobalRegion(set);
+        Region low = new Region("low", new CuboidArea());
+        Region high = new Region("high", new CuboidArea());
+
+        low.area().addPoint(new Vector3i());
+        low.area().addPoint(new Vector3i(5, 5, 5));
+
+        high.area().addPoint(new Vector3i(2, 2, 2));
+        high.area().addPoint(new Vector3i(5, 5, 5));
+        high.priority(10);
+
+        set.add(global);
+        set.add(low);
+        set.add(high);
+
+        final SortedRegionView result = set.query(4, 4, 4);
+        assertEquals(3, result.size());
+        assertEquals(high, result.get(0));
+        assertEquals(low, result.get(1));
+        assertEquals(global, result.get(2));
+        assertEquals(List.of(high, low, global), List.copyOf(result));
+        assertThrows(UnsupportedOperationException.class, () -> result.remove(low));
+
+        // Only the global region applies outside of all areas
+        assertEquals(Set.of(global), set.query(-10, 0, 0));
+
+        // The position query should return the same ordering
+        assertEquals(
+                List.copyOf(result),
+                List.copyOf(set.query(RegionQuery.Position.at(4, 4, 4)).result()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    @Order(12)
+    void testPriorityChangeReordersRegions(RegionIndexType type) {
+        RegionisedWorldSet set =
+                new RegionisedWorldSet(Key.key("orbis:world"), new WorldSettings(type, 0));
+        final Region global = new GlobalRegion(set);
+        final Region otherGlobal = new GlobalRegion("orbis:global");
+        otherGlobal.priority(0);
+        Region first = new Region("first", new CuboidArea());
+        Region second = new Region("second", new CuboidArea());
+
+        first.area().addPoint(new Vector3i());
+        first.area().addPoint(new Vector3i(5, 5, 5));
+        first.priority(10);
+
+        second.area().addPoint(new Vector3i());
+        second.area().addPoint(new Vector3i(5, 5, 5));
+        second.priority(5);
+
+        set.add(otherGlobal);
+        set.add(global);
+        set.add(first);
+        set.add(second);
+        assertEquals(List.of(first, second, global, otherGlobal), List.copyOf(set.query(1, 1, 1)));
+
+        second.priority(20);
+        otherGlobal.priority(3);
+        assertEquals(List.of(second, first, otherGlobal, global), List.copyOf(set.query(1, 1, 1)));
+
+        // Removed regions should no longer be re-keyed
+        set.remove(second);
+        second.priority(0);
+        assertEquals(List.of(first, otherGlobal, global), List.copyOf(set.query(1, 1, 1)));
+    }
+
+    @Test
+    @Order(13)
+    void testFlagCacheInvalidation() {
+        RegionisedWorldSet set = new RegionisedWorldSet();
+        Region region = new Region("test", new CuboidArea());
+        Region parent = new Region("parent", new CuboidArea());
+        region.area().addPoint(new Vector3i());
+        region.area().addPoint(new Vector3i(5, 5, 5));
+        region.addFlag(DefaultFlags.CAN_BREAK).setValue(false);
+        set.add(region);
+
+        final RegionQuery.Flag<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.CAN_BREAK).build();
+        assertEquals(Optional.of(false), set.queryFlag(1, 1, 1, query));
+        assertEquals(Optional.of(false), set.queryFlag(1, 1, 1, query));
+        assertEquals(1, set.flagCacheStats().hits());
+        assertEquals(1, set.flagCacheStats().misses());
+
+        // Changing the flag value
+        region.setFlag(DefaultFlags.CAN_BREAK, true);
+        assertEquals(Optional.of(true), set.queryFlag(1, 1, 1, query));
+
+        // Removing the flag and inheriting it from a parent
+        parent.addFlag(DefaultFlags.CAN_BREAK).setValue(false);
+        region.addParent(parent);
+        region.removeFlag(DefaultFlags.CAN_BREAK);
+        assertEquals(Optional.of(false), set.queryFlag(1, 1, 1, query));
+        parent.setFlag(DefaultFlags.CAN_BREAK, true);
+        assertEquals(Optional.of(true), set.queryFlag(1, 1, 1, query));
+
+        // Shrinking the area
+        assertEquals(Optional.of(true), set.queryFlag(5, 5, 5, query));
+        region.area().removePoint(new Vector3i(5, 5, 5));
+        region.area().addPoint(new Vector3i(2, 2, 2));
+        assertEquals(Optional.empty(), set.queryFlag(5, 5, 5, query));
+
+        // Tests share the cached values
+        assertEquals(Optional.of(true), set.queryFlag(2, 2, 2, query));
+        final long hits = set.flagCacheStats().hits();
+        assertTrue(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, null, false));
+        assertEquals(hits + 1, set.flagCacheStats().hits());
+        parent.setFlag(DefaultFlags.CAN_BREAK, false);
+        assertFalse(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, null, true));
+
+        // Removing the region
+        set.remove(region);
+        assertEquals(Optional.empty(), set.queryFlag(1, 1, 1, query));
+        assertTrue(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, null, true));
+    }
+
+    @Test
+    @Order(14)
+    void testFlagCacheMembership() {
+        RegionisedWorldSet set = new RegionisedWorldSet();
+        Region region = new Region("test", new CuboidArea());
+        region.area().addPoint(new Vector3i());
+        region.area().addPoint(new Vector3i(5, 5, 5));
+        region.addGroupedFlag(DefaultFlags.CAN_BREAK, Set.of(FlagMemberGroup.NONMEMBER))
+                .setValue(false);
+        set.add(region);
+
+        final UUID member = UUID.randomUUID();
+        final UUID nonMember = UUID.randomUUID();
+        region.addMember(new PlayerMember(member));
+
+        // Member dependent results must not be shared between players
+        final RegionQuery.Flag.Builder<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.CAN_BREAK);
+        assertEquals(Optional.of(false), set.queryFlag(1, 1, 1, query.player(nonMember).build()));
+        assertEquals(Optional.empty(), set.queryFlag(1, 1, 1, query.player(member).build()));
+        assertEquals(Optional.of(false), set.queryFlag(1, 1, 1, query.player(nonMember).build()));
+        assertFalse(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, nonMember, true));
+        assertTrue(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, member, true));
+        assertFalse(set.test(2, 2, 2, DefaultFlags.CAN_BREAK, nonMember, true));
+
+        // Disabled caches should report no statistics
+        RegionisedWorldSet uncached =
+                new RegionisedWorldSet(null, new WorldSettings(RegionIndexType.TREE, 0));
+        uncached.add(region);
+        assertEquals(Optional.empty(), uncached.queryFlag(1, 1, 1, query.player(member).build()));
+        assertEquals(FlagCacheStats.DISABLED, uncached.flagCacheStats());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    @Order(15)
+    void testBatchQueryDenied(RegionIndexType type) {
+        RegionisedWorldSet set =
+                new RegionisedWorldSet(Key.key("orbis:world"), new WorldSettings(type, 0));
+        final Region global = new GlobalRegion(set);
+        Region denied = new Region("denied", new CuboidArea());
+        Region allowed = new Region("allowed", new CuboidArea());
+        global.addFlag(DefaultFlags.CAN_BLOCKS_EXPLODE).setValue(false);
+
+        // Spans several chunks, so chunk indexes see it in more than one bucket
+        denied.area().addPoint(new Vector3i(-20, 0, -20));
+        denied.area().addPoint(new Vector3i(20, 10, 20));
+        denied.addFlag(DefaultFlags.CAN_BLOCKS_EXPLODE).setValue(false);
+
+        allowed.area().addPoint(new Vector3i(0, 0, 0));
+        allowed.area().addPoint(new Vector3i(5, 5, 5));
+        allowed.addFlag(DefaultFlags.CAN_BLOCKS_EXPLODE).setValue(true);
+        allowed.priority(10);
+
+        set.add(global);
+        set.add(denied);
+        set.add(allowed);
+
+        final RegionQuery.Flag<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.CAN_BLOCKS_EXPLODE).build();
+        final List<Vector3i> positions = List.of(
+                new Vector3i(1, 1, 1),
+                new Vector3i(-10, 5, 10),
+                new Vector3i(5, 5, 5),
+                new Vector3i(6, 5, 5),
+                new Vector3i(30, 0, 30));
+        final BitSet result = set.queryDenied(positions, query);
+        for (int i = 0; i < positions.size(); i++) {
+            final Vector3i position = positions.get(i);
+            final boolean expected =
+                    !set.queryFlag(position.x(), position.y(), position.z(), query)
+                            .orElse(true);
+            assertEquals(expected, result.get(i), "at " + position);
+        }
+        assertEquals(BitSet.valueOf(new long[] {0b11010}), result);
+
+        // Without the global flag, positions outside every region are allowed
+        global.removeFlag(DefaultFlags.CAN_BLOCKS_EXPLODE);
+        assertEquals(BitSet.valueOf(new long[] {0b01010}), set.queryDenied(positions, query));
+        assertTrue(set.queryDenied(new long[0], query).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    @Order(16)
+    void testBooleanFlagTest(RegionIndexType type) {
+        RegionisedWorldSet set =
+                new RegionisedWorldSet(Key.key("orbis:world"), new WorldSettings(type, 0));
+        final Region global = new GlobalRegion(set);
+        Region outer = new Region("outer", new CuboidArea());
+        Region inner = new Region("inner", new CuboidArea());
+        global.addFlag(DefaultFlags.CAN_BREAK).setValue(true);
+
+        // Same priority as the global region, so it takes precedence over it
+        outer.area().addPoint(new Vector3i(-20, 0, -20));
+        outer.area().addPoint(new Vector3i(20, 10, 20));
+        outer.addFlag(DefaultFlags.CAN_BREAK).setValue(false);
+
+        final UUID member = UUID.randomUUID();
+        inner.area().addPoint(new Vector3i(0, 0, 0));
+        inner.area().addPoint(new Vector3i(5, 5, 5));
+        inner.addMember(new PlayerMember(member));
+        inner.addGroupedFlag(DefaultFlags.CAN_BREAK, Set.of(FlagMemberGroup.MEMBER))
+                .setValue(true);
+        inner.priority(10);
+
+        set.add(global);
+        set.add(outer);
+        set.add(inner);
+
+        for (UUID player : new UUID[] {null, member, UUID.randomUUID()}) {
+            final RegionQuery.Flag.Builder<Boolean> builder =
+                    RegionQuery.Flag.builder(DefaultFlags.CAN_BREAK);
+            if (player != null) builder.player(player);
+            final RegionQuery.Flag<Boolean> query = builder.build();
+            for (int x = -25; x <= 25; x += 5) {
+                for (int y = -5; y <= 15; y += 5) {
+                    final boolean expected = set.queryFlag(x, y, x, query).orElse(false);
+                    assertEquals(
+                            expected,
+                            set.test(x, y, x, DefaultFlags.CAN_BREAK, player, false),
+                            "at " + x + ", " + y);
+                }
+            }
+        }
+
+        assertFalse(set.test(1, 1, 1, DefaultFlags.CAN_BREAK, UUID.randomUUID(), true));
+        assertTrue(set.test(1, 1, 1, DefaultFlags.CAN_BREAK, member, false));
+        assertTrue(set.test(30, 0, 30, DefaultFlags.CAN_BREAK, null, false));
+        assertFalse(set.test(30, 0, 30, DefaultFlags.CAN_PVP, null, false));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegionIndexType.class)
+    @Order(17)
+    void testAddAll(RegionIndexType type) {
+        final Random random = new Random(7);
+        final WorldSettings settings = new WorldSettings(type, 0);
+        RegionisedWorldSet bulk = new RegionisedWorldSet(Key.key("orbis:bulk"), settings);
+        RegionisedWorldSet single = new RegionisedWorldSet(Key.key("orbis:single"), settings);
+
+        final List<Region> regions = new ArrayList<>();
+        regions.add(new GlobalRegion(bulk));
+        for (int i = 0; i < 300; i++) {
+            final Region region = new Region("bulk" + i, new CuboidArea());
+            final int x = random.nextInt(200) - 100, z = random.nextInt(200) - 100;
+            region.area().addPoint(new Vector3i(x, 0, z));
+            region.area()
+                    .addPoint(new Vector3i(x + random.nextInt(30), 20, z + random.nextInt(30)));
+            region.priority(random.nextInt(5));
+            regions.add(region);
+        }
+        // Empty areas are tracked but not indexed
+        regions.add(new Region("empty", new CuboidArea()));
+
+        assertTrue(bulk.addAll(regions));
+        assertFalse(bulk.addAll(regions));
+        regions.forEach(single::add);
+        assertEquals(single.regions(), bulk.regions());
+
+        for (int i = 0; i < 500; i++) {
+            final double x = random.nextInt(260) - 130, z = random.nextInt(260) - 130;
+            // Regions of equal priority may be in any order
+            assertEquals(Set.copyOf(single.query(x, 10, z)), Set.copyOf(bulk.query(x, 10, z)));
+        }
+
+        // Regions added in bulk still follow area changes
+        final Region empty = regions.getLast();
+        empty.area().addPoint(new Vector3i(500, 0, 500));
+        empty.area().addPoint(new Vector3i(510, 10, 510));
+        assertTrue(bulk.query(505, 5, 505).contains(empty));
+    }
+
     /**
      * Helper method to get the updateListeners field from EncompassingArea using reflection.
      */
@@ -71,6 +71,15 @@ public final class RPGRegionsMigrator {
             for (RPGRegionsRegion region : integration.getRegions()) {
                 if (!region.getWorld().equals(world.getUID())) continue;
 
+                // Migrating a region stored for an unloaded world would overwrite it
+                if (OrbisAPI.get().isRegionStored(region.getName())) {
+                    audience.sendMessage(Component.text(
+                            "Region '" + region.getName()
+                                    + "' already exists in a world that is not loaded!",
+                            NamedTextColor.RED));
+                    continue;
+                }
+
                 audience.sendMessage(Component.text(
                         "Processing region " + region.getName() + "...", NamedTextColor.YELLOW));
 
@@ -61,6 +61,7 @@ import org.empirewar.orbis.registry.OrbisRegistries;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.joml.Vector3i;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -209,12 +210,24 @@ public final class WorldGuardMigrator {
             final RegionManager regionManager =
                     instance.getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
             final RegionisedWorld regionisedWorld = OrbisAPI.get().getRegionisedWorld(world.key());
+            // Add the regions to the world in bulk, so the index is built once
+            final List<Region> migrated = new ArrayList<>();
             for (ProtectedRegion region : regionManager.getRegions().values()) {
                 // If added by another world
                 final Optional<Region> possibleExisting =
                         OrbisRegistries.REGIONS.get(region.getId());
                 if (possibleExisting.isPresent()) {
-                    regionisedWorld.add(possibleExisting.get());
+                    migrated.add(possibleExisting.get());
+                    continue;
+                }
+
+                // Migrating a region stored for an unloaded world would overwrite it
+                if (OrbisAPI.get().isRegionStored(region.getId())) {
+                    audience.sendMessage(Component.text(
+                            "Region '" + region.getId()
+                                    + "' already exists in a world that is not loaded!",
+                            NamedTextColor.RED));
+                    errors++;
                     continue;
                 }
 
@@ -262,11 +275,12 @@ public final class WorldGuardMigrator {
                     transformer.transform(audience, region, flag, orbisRegion, orbisFlag);
                 }
 
-                regionisedWorld.add(orbisRegion);
+                migrated.add(orbisRegion);
                 OrbisRegistries.REGIONS.register(orbisRegion.key(), orbisRegion);
                 audience.sendMessage(Component.text(
                         "Added region '" + orbisRegion.name() + "'.", NamedTextColor.GREEN));
             }
+            regionisedWorld.addAll(migrated);
 
             for (ProtectedRegion region : regionManager.getRegions().values()) {
                 final Optional<Region> orbisRegion = regionisedWorld.getByName(region.getId());
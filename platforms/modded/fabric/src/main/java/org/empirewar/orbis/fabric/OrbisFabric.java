@@ -56,6 +56,7 @@ import org.empirewar.orbis.fabric.session.FabricConsoleSession;
 import org.empirewar.orbis.fabric.session.FabricPlayerSession;
 import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.modded.command.ModdedCommands;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.selection.Selection;
@@ -63,13 +64,13 @@ import org.empirewar.orbis.world.RegionisedWorld;
 import org.incendo.cloud.SenderMapper;
 import org.incendo.cloud.execution.ExecutionCoordinator;
 import org.incendo.cloud.fabric.FabricServerCommandManager;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
-import java.util.Set;
 import java.util.UUID;
 
 public class OrbisFabric extends OrbisPlatform implements ModInitializer {
@@ -98,6 +99,9 @@ public class OrbisFabric extends OrbisPlatform implements ModInitializer {
 
     private volatile MinecraftServer server;
 
+    // The transition of the move being handled, applied once no other listener cancelled it
+    private PlayerRegionTracker.@Nullable Transition pendingMove;
+
     public MinecraftServer server() {
         return server;
     }
@@ -173,6 +177,11 @@ public class OrbisFabric extends OrbisPlatform implements ModInitializer {
         });
 
         ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            try {
+                shutdown();
+            } catch (IOException e) {
+                logger().error("Error closing region storage", e);
+            }
             this.adventure = null;
             this.server = null;
         });
@@ -199,12 +208,21 @@ public class OrbisFabric extends OrbisPlatform implements ModInitializer {
         });
 
         PlayerMoveEvent.EVENT.register((player, level, from, to) -> {
+            // Left over if another listener cancelled the last move
+            this.pendingMove = null;
             final RegionisedWorld world =
                     OrbisAPI.get().getRegionisedWorld(((Keyed) player.level().dimension()).key());
 
-            final RegionQuery.FilterableRegionResult<RegionQuery.Position> toQuery =
-                    world.query(RegionQuery.Position.builder().position(to.x(), to.y(), to.z()));
-            final boolean canMove = toQuery.query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER)
+            final PlayerRegionTracker.Transition transition =
+                    regionTracker().move(player.getUUID(), world, to.x(), to.y(), to.z());
+            // The player is still within the same block
+            if (transition == null) {
+                return false;
+            }
+
+            final boolean canMove = transition
+                    .to()
+                    .query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER)
                             .player(player.getUUID()))
                     .result()
                     .orElse(true);
@@ -213,25 +231,25 @@ public class OrbisFabric extends OrbisPlatform implements ModInitializer {
                 return true;
             }
 
-            final RegionQuery.FilterableRegionResult<RegionQuery.Position> fromQuery = world.query(
-                    RegionQuery.Position.builder().position(from.x(), from.y(), from.z()));
-            final Set<Region> toRegions = toQuery.result();
-            final Set<Region> fromRegions = fromQuery.result();
-            for (Region possiblyEntered : toRegions) {
-                if (fromRegions.contains(possiblyEntered)) continue;
-                RegionEnterEvent.EVENT
-                        .invoker()
-                        .enter(player, player.level(), to, world, possiblyEntered);
-            }
+            this.pendingMove = transition;
+            return false;
+        });
 
-            for (Region possiblyLeft : fromRegions) {
-                if (toRegions.contains(possiblyLeft)) continue;
-                RegionLeaveEvent.EVENT
-                        .invoker()
-                        .leave(player, player.level(), to, world, possiblyLeft);
+        // Applied once no other listener cancelled the move
+        PlayerMoveEvent.COMPLETED.register((player, level, from, to) -> {
+            final PlayerRegionTracker.Transition transition = this.pendingMove;
+            this.pendingMove = null;
+            if (transition == null) return;
+
+            final RegionisedWorld world = transition.world();
+            regionTracker().apply(player.getUUID(), transition);
+            for (Region entered : transition.entered()) {
+                RegionEnterEvent.EVENT.invoker().enter(player, player.level(), to, world, entered);
             }
 
-            return false;
+            for (Region left : transition.left()) {
+                RegionLeaveEvent.EVENT.invoker().leave(player, player.level(), to, world, left);
+            }
         });
 
         PlayerTeleportEvent.EVENT.register((player, level, pos) -> {
@@ -41,5 +41,20 @@ public interface PlayerMoveEvent {
                 return false;
             });
 
+    /**
+     * Called after a move that no listener of {@link #EVENT} cancelled.
+     */
+    Event<Completed> COMPLETED = EventFactory.createArrayBacked(
+            Completed.class, (listeners) -> (player, level, from, to) -> {
+                for (Completed listener : listeners) {
+                    listener.completed(player, level, from, to);
+                }
+            });
+
     boolean move(Player player, Level level, Vec3 from, Vec3 to);
+
+    interface Completed {
+
+        void completed(Player player, Level level, Vec3 from, Vec3 to);
+    }
 }
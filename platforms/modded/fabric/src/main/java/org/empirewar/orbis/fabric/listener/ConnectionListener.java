@@ -23,6 +23,7 @@
  */
 package org.empirewar.orbis.fabric.listener;
 
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 
 import org.empirewar.orbis.OrbisPlatform;
@@ -36,6 +37,11 @@ public final class ConnectionListener {
             final UUID uuid = handler.getPlayer().getUUID();
             api.selectionManager().remove(uuid);
             api.setVisualising(uuid, false);
+            api.regionTracker().remove(uuid);
+            api.permissionCache().invalidate(uuid);
         });
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register(
+                (player, origin, destination) ->
+                        api.permissionCache().invalidate(player.getUUID()));
     }
 }
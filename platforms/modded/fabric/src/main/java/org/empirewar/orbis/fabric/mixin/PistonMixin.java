@@ -29,7 +29,6 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.piston.PistonBaseBlock;
 import net.minecraft.world.level.block.piston.PistonStructureResolver;
 
-import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.modded.util.FlagActions;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
@@ -52,20 +51,8 @@ public class PistonMixin {
             return;
         }
 
-        for (BlockPos toPush : structureHelper.getToPush()) {
-            if (FlagActions.shouldPreventBlockAction(
-                    level, toPush, null, DefaultFlags.ACTIVATE_PISTONS)) {
-                cir.setReturnValue(false);
-                return;
-            }
-        }
-
-        for (BlockPos toDestroy : structureHelper.getToDestroy()) {
-            if (FlagActions.shouldPreventBlockAction(
-                    level, toDestroy, null, DefaultFlags.ACTIVATE_PISTONS)) {
-                cir.setReturnValue(false);
-                return;
-            }
+        if (FlagActions.shouldPreventPistonAction(level, structureHelper)) {
+            cir.setReturnValue(false);
         }
     }
 }
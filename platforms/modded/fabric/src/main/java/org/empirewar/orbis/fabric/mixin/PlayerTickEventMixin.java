@@ -58,6 +58,8 @@ public abstract class PlayerTickEventMixin implements ServerPlayerDuck {
         this.orbis$lastTickPosition = to;
         if (PlayerMoveEvent.EVENT.invoker().move(player, player.level(), from, to)) {
             player.teleportTo(from.x(), from.y(), from.z());
+        } else {
+            PlayerMoveEvent.COMPLETED.invoker().completed(player, player.level(), from, to);
         }
     }
 }
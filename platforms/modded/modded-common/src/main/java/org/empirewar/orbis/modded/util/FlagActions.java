@@ -28,13 +28,19 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.piston.PistonStructureResolver;
 
 import org.empirewar.orbis.OrbisAPI;
+import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.query.RegionQuery;
+import org.empirewar.orbis.util.PackedPositions;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.UUID;
+
 public final class FlagActions {
 
     private FlagActions() {
@@ -49,15 +55,33 @@ public final class FlagActions {
                 OrbisAPI.get().getRegionisedWorld(((Keyed) level.dimension()).key());
         if (world == null) return false;
 
-        RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) {
-            builder.player(player.getUUID());
+        final UUID playerId = player == null ? null : player.getUUID();
+        return !world.test(pos.getX(), pos.getY(), pos.getZ(), flag, playerId, true);
+    }
+
+    public static boolean shouldPreventPistonAction(
+            Level level, PistonStructureResolver structure) {
+        final List<BlockPos> toPush = structure.getToPush();
+        final List<BlockPos> toDestroy = structure.getToDestroy();
+        if (toPush.isEmpty() && toDestroy.isEmpty()) return false;
+
+        RegionisedWorld world =
+                OrbisAPI.get().getRegionisedWorld(((Keyed) level.dimension()).key());
+        if (world == null) return false;
+
+        // Query every moved block at once
+        final long[] positions = new long[toPush.size() + toDestroy.size()];
+        int index = 0;
+        for (BlockPos pos : toPush) {
+            positions[index++] = PackedPositions.pack(pos.getX(), pos.getY(), pos.getZ());
+        }
+        for (BlockPos pos : toDestroy) {
+            positions[index++] = PackedPositions.pack(pos.getX(), pos.getY(), pos.getZ());
         }
 
-        return !world.query(RegionQuery.Position.at(pos.getX(), pos.getY(), pos.getZ()))
-                .query(builder)
-                .result()
-                .orElse(true);
+        final RegionQuery.Flag<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.ACTIVATE_PISTONS).build();
+        return !world.queryDenied(positions, query).isEmpty();
     }
 
     public static boolean shouldPreventEntityAction(
@@ -71,16 +95,8 @@ public final class FlagActions {
                 OrbisAPI.get().getRegionisedWorld(((Keyed) entity.level().dimension()).key());
         if (world == null) return false;
 
-        RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) {
-            builder.player(player.getUUID());
-        }
-
-        final BlockPos location = entity.blockPosition();
-        return !world.query(
-                        RegionQuery.Position.at(location.getX(), location.getY(), location.getZ()))
-                .query(builder)
-                .result()
-                .orElse(true);
+        final UUID playerId = player == null ? null : player.getUUID();
+        return !world.test(
+                entity.getBlockX(), entity.getBlockY(), entity.getBlockZ(), flag, playerId, true);
     }
 }
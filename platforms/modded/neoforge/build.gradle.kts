@@ -144,8 +144,6 @@ tasks {
 //        relocate("org.yaml.snakeyaml", "$root.snakeyaml")
 //        relocate("org.checkerframework", "$root.checker")
 //        relocate("com.google.errorprone", "$root.errorprone")
-//        relocate("com.github.davidmoten.rtreemulti", "$root.rtree")
-//        relocate("com.github.davidmoten.guavamini", "$root.rtree.guava")
     }
 
     processResources {
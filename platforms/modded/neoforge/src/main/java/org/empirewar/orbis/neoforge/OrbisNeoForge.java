@@ -168,6 +168,11 @@ public class OrbisNeoForge extends OrbisPlatform {
 
     @SubscribeEvent
     public void onServerStopped(ServerStoppedEvent event) {
+        try {
+            shutdown();
+        } catch (IOException e) {
+            logger().error("Error closing region storage", e);
+        }
         this.adventure = null;
         this.server = null;
     }
@@ -23,7 +23,6 @@
  */
 package org.empirewar.orbis.neoforge.listener;
 
-import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.piston.PistonStructureResolver;
@@ -75,20 +74,8 @@ public final class BlockActionListener {
             return;
         }
 
-        for (BlockPos toPush : structureHelper.getToPush()) {
-            if (FlagActions.shouldPreventBlockAction(
-                    (Level) event.getLevel(), toPush, null, DefaultFlags.ACTIVATE_PISTONS)) {
-                event.setCanceled(true);
-                return;
-            }
-        }
-
-        for (BlockPos toDestroy : structureHelper.getToDestroy()) {
-            if (FlagActions.shouldPreventBlockAction(
-                    (Level) event.getLevel(), toDestroy, null, DefaultFlags.ACTIVATE_PISTONS)) {
-                event.setCanceled(true);
-                return;
-            }
+        if (FlagActions.shouldPreventPistonAction((Level) event.getLevel(), structureHelper)) {
+            event.setCanceled(true);
         }
     }
 }
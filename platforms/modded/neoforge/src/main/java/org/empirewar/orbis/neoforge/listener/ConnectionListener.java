@@ -45,5 +45,12 @@ public final class ConnectionListener {
         UUID uuid = event.getEntity().getUUID();
         api.selectionManager().remove(uuid);
         api.setVisualising(uuid, false);
+        api.regionTracker().remove(uuid);
+        api.permissionCache().invalidate(uuid);
+    }
+
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        api.permissionCache().invalidate(event.getEntity().getUUID());
     }
 }
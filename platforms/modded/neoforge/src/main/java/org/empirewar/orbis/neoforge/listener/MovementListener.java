@@ -27,6 +27,7 @@ import net.kyori.adventure.key.Keyed;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.Vec3;
+import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.entity.EntityTeleportEvent;
@@ -37,12 +38,11 @@ import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.neoforge.access.ServerPlayerDuck;
 import org.empirewar.orbis.neoforge.api.event.RegionEnterEvent;
 import org.empirewar.orbis.neoforge.api.event.RegionLeaveEvent;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.world.RegionisedWorld;
 
-import java.util.Set;
-
 public final class MovementListener {
 
     private final Orbis orbis;
@@ -69,7 +69,8 @@ public final class MovementListener {
         }
     }
 
-    @SubscribeEvent
+    // Last, so that the position is final once other mods have moved the player this tick
+    @SubscribeEvent(priority = EventPriority.LOWEST)
     public void onMove(PlayerTickEvent.Post event) {
         final Player player = event.getEntity();
         final Vec3 to = player.position();
@@ -80,10 +81,14 @@ public final class MovementListener {
         final RegionisedWorld world =
                 orbis.getRegionisedWorld(((Keyed) player.level().dimension()).key());
 
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> toQuery =
-                world.query(RegionQuery.Position.builder().position(to.x(), to.y(), to.z()));
-        final boolean canMove = toQuery.query(
-                        RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER).player(player.getUUID()))
+        final PlayerRegionTracker.Transition transition =
+                orbis.regionTracker().move(player.getUUID(), world, to.x(), to.y(), to.z());
+        // The player is still within the same block
+        if (transition == null) return;
+
+        final boolean canMove = transition
+                .to()
+                .query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER).player(player.getUUID()))
                 .result()
                 .orElse(true);
 
@@ -92,20 +97,14 @@ public final class MovementListener {
             return;
         }
 
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> fromQuery =
-                world.query(RegionQuery.Position.builder().position(from.x(), from.y(), from.z()));
-        final Set<Region> toRegions = toQuery.result();
-        final Set<Region> fromRegions = fromQuery.result();
-        for (Region possiblyEntered : toRegions) {
-            if (fromRegions.contains(possiblyEntered)) continue;
+        orbis.regionTracker().apply(player.getUUID(), transition);
+        for (Region entered : transition.entered()) {
             NeoForge.EVENT_BUS.post(
-                    new RegionEnterEvent(player, player.level(), to, world, possiblyEntered));
+                    new RegionEnterEvent(player, player.level(), to, world, entered));
         }
 
-        for (Region possiblyLeft : fromRegions) {
-            if (toRegions.contains(possiblyLeft)) continue;
-            NeoForge.EVENT_BUS.post(
-                    new RegionLeaveEvent(player, player.level(), to, world, possiblyLeft));
+        for (Region left : transition.left()) {
+            NeoForge.EVENT_BUS.post(new RegionLeaveEvent(player, player.level(), to, world, left));
         }
     }
 }
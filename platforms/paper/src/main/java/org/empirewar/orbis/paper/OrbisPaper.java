@@ -60,6 +60,7 @@ public class OrbisPaper extends JavaPlugin implements Listener {
     public void onDisable() {
         try {
             platform.saveRegions();
+            platform.shutdown();
         } catch (IOException e) {
             platform.logger().error("Error saving regions", e);
         }
@@ -50,12 +50,14 @@ import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.paper.OrbisPaperPlatform;
 import org.empirewar.orbis.query.RegionQuery;
+import org.empirewar.orbis.util.PackedPositions;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Vector3d;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public record BlockActionListener(OrbisPaperPlatform<?> orbis) implements Listener {
 
@@ -111,9 +113,8 @@ public record BlockActionListener(OrbisPaperPlatform<?> orbis) implements Listen
 
     @EventHandler(ignoreCancelled = true)
     public void onExplode(BlockExplodeEvent event) {
-        event.blockList()
-                .removeIf(
-                        block -> shouldPreventBlockAction(block, DefaultFlags.CAN_BLOCKS_EXPLODE));
+        final RegionisedWorld world = orbis.getRegionisedWorld(event.getBlock().getWorld());
+        removePrevented(world, event.blockList(), DefaultFlags.CAN_BLOCKS_EXPLODE);
     }
 
     @EventHandler
@@ -180,12 +181,40 @@ public record BlockActionListener(OrbisPaperPlatform<?> orbis) implements Listen
     }
 
     private void handlePistonEvent(BlockPistonEvent event, Collection<Block> blocks) {
+        if (blocks.isEmpty()) return;
+        final RegionisedWorld world = orbis.getRegionisedWorld(event.getBlock().getWorld());
+        final RegionQuery.Flag<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.ACTIVATE_PISTONS).build();
+        if (!world.queryDenied(pack(blocks), query).isEmpty()) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Removes the blocks where the specified flag is denied, querying all blocks at once.
+     *
+     * @param world the world of the blocks
+     * @param blocks the blocks, such as those destroyed by an explosion
+     * @param flag the flag to check
+     */
+    static void removePrevented(
+            RegionisedWorld world, List<Block> blocks, RegistryRegionFlag<Boolean> flag) {
+        if (blocks.isEmpty()) return;
+        final BitSet denied =
+                world.queryDenied(pack(blocks), RegionQuery.Flag.builder(flag).build());
+        // Remove from the end so the remaining indices stay valid
+        for (int i = denied.length() - 1; i >= 0; i = denied.previousSetBit(i - 1)) {
+            blocks.remove(i);
+        }
+    }
+
+    private static long[] pack(Collection<Block> blocks) {
+        final long[] positions = new long[blocks.size()];
+        int index = 0;
         for (Block block : blocks) {
-            if (shouldPreventBlockAction(block, DefaultFlags.ACTIVATE_PISTONS)) {
-                event.setCancelled(true);
-                return;
-            }
+            positions[index++] = PackedPositions.pack(block.getX(), block.getY(), block.getZ());
         }
+        return positions;
     }
 
     private boolean shouldPreventBlockAction(
@@ -197,14 +226,8 @@ public record BlockActionListener(OrbisPaperPlatform<?> orbis) implements Listen
     private boolean shouldPreventBlockAction(@Nullable Block block, @Nullable Player player, RegistryRegionFlag<Boolean> flag) {
         // spotless:on
         if (block == null) return false;
-        final Vector3d pos = new Vector3d(block.getX(), block.getY(), block.getZ());
         final RegionisedWorld world = orbis.getRegionisedWorld(block.getWorld());
-        final RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) builder.player(player.getUniqueId());
-        final boolean canAct = world.query(RegionQuery.Position.builder().position(pos))
-                .query(builder)
-                .result()
-                .orElse(true);
-        return !canAct;
+        final UUID playerId = player == null ? null : player.getUniqueId();
+        return !world.test(block.getX(), block.getY(), block.getZ(), flag, playerId, true);
     }
 }
@@ -25,6 +25,7 @@ package org.empirewar.orbis.paper.listener;
 
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.empirewar.orbis.OrbisPlatform;
 
@@ -36,5 +37,12 @@ public record ConnectionListener(OrbisPlatform api) implements Listener {
         final UUID uuid = event.getPlayer().getUniqueId();
         api.selectionManager().remove(uuid);
         api.setVisualising(uuid, false);
+        api.regionTracker().remove(uuid);
+        api.permissionCache().invalidate(uuid);
+    }
+
+    @EventHandler
+    public void onChangedWorld(PlayerChangedWorldEvent event) {
+        api.permissionCache().invalidate(event.getPlayer().getUniqueId());
     }
 }
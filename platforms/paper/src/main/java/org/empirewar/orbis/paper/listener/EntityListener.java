@@ -47,9 +47,9 @@ import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.paper.OrbisPaperPlatform;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.world.RegionisedWorld;
-import org.joml.Vector3d;
 
 import java.util.List;
+import java.util.UUID;
 
 public class EntityListener implements Listener {
 
@@ -65,17 +65,15 @@ public class EntityListener implements Listener {
 
         final RegionisedWorld world = orbis.getRegionisedWorld(player.getWorld());
         final Location location = player.getLocation();
-        final Vector3d pos = new Vector3d(location.getX(), location.getY(), location.getZ());
-
-        final RegionQuery.Flag.Builder<Boolean> builder =
-                RegionQuery.Flag.builder(DefaultFlags.INVULNERABILITY);
-        builder.player(player.getUniqueId());
-        final boolean canAct = world.query(RegionQuery.Position.builder().position(pos))
-                .query(builder)
-                .result()
-                .orElse(false);
-
-        if (canAct) {
+        final boolean invulnerable = world.test(
+                location.getBlockX(),
+                location.getBlockY(),
+                location.getBlockZ(),
+                DefaultFlags.INVULNERABILITY,
+                player.getUniqueId(),
+                false);
+
+        if (invulnerable) {
             event.setCancelled(true);
         }
     }
@@ -126,17 +124,14 @@ public class EntityListener implements Listener {
         final RegionisedWorld world = orbis.getRegionisedWorld(entity.getWorld());
         if (world == null) return false;
 
-        RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) {
-            builder.player(player.getUniqueId());
-        }
-
-        final Location location = entity.getLocation();
-        return !world.query(RegionQuery.Position.builder()
-                        .position(location.getX(), location.getY(), location.getZ()))
-                .query(builder)
-                .result()
-                .orElse(true);
+        final UUID playerId = player == null ? null : player.getUniqueId();
+        return !world.test(
+                Location.locToBlock(entity.getX()),
+                Location.locToBlock(entity.getY()),
+                Location.locToBlock(entity.getZ()),
+                flag,
+                playerId,
+                true);
     }
 
     @EventHandler
@@ -146,10 +141,6 @@ public class EntityListener implements Listener {
         final Entity attacked = event.getAttacked();
         final Player attacker = event.getPlayer();
 
-        final RegionisedWorld world =
-                orbis.getRegionisedWorld(attacked.getWorld().key());
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> positionQuery = world.query(
-                RegionQuery.Position.at(attacked.getX(), attacked.getY(), attacked.getZ()));
         final RegistryRegionFlag<Boolean> flag =
                 switch (attacked) {
                     case Vehicle ignored -> DefaultFlags.CAN_DESTROY_VEHICLE;
@@ -159,9 +150,7 @@ public class EntityListener implements Listener {
                 };
 
         if (flag != null) {
-            final RegionQuery.Flag.Builder<Boolean> flagQueryBuilder =
-                    RegionQuery.Flag.builder(flag).player(attacker.getUniqueId());
-            if (!positionQuery.query(flagQueryBuilder).result().orElse(true)) {
+            if (shouldPreventEntityAction(attacked, attacker, flag)) {
                 event.setCancelled(true);
             }
             return;
@@ -178,6 +167,10 @@ public class EntityListener implements Listener {
             return;
         }
 
+        final RegionisedWorld world =
+                orbis.getRegionisedWorld(attacked.getWorld().key());
+        final RegionQuery.FilterableRegionResult<RegionQuery.Position> positionQuery = world.query(
+                RegionQuery.Position.at(attacked.getX(), attacked.getY(), attacked.getZ()));
         final RegionQuery.Flag.Builder<List<Key>> flagQueryBuilder = RegionQuery.Flag.builder(
                         DefaultFlags.DAMAGEABLE_ENTITIES)
                 .player(attacker.getUniqueId());
@@ -222,11 +215,7 @@ public class EntityListener implements Listener {
     public void onEntityExplode(EntityExplodeEvent event) {
         final RegionisedWorld world =
                 orbis.getRegionisedWorld(event.getLocation().getWorld());
-        event.blockList().removeIf(block -> {
-            return !world.query(RegionQuery.Position.at(block.getX(), block.getY(), block.getZ()))
-                    .query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTITIES_EXPLODE))
-                    .result()
-                    .orElse(true);
-        });
+        BlockActionListener.removePrevented(
+                world, event.blockList(), DefaultFlags.CAN_ENTITIES_EXPLODE);
     }
 }
@@ -29,24 +29,41 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityToggleGlideEvent;
 import org.bukkit.event.entity.FoodLevelChangeEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.persistence.PersistentDataType;
 import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.paper.OrbisPaperPlatform;
 import org.empirewar.orbis.paper.api.event.RegionEnterEvent;
 import org.empirewar.orbis.paper.api.event.RegionLeaveEvent;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
+import org.empirewar.orbis.util.PackedPositions;
 import org.empirewar.orbis.world.RegionisedWorld;
+import org.empirewar.orbis.world.SortedRegionView;
 
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 public class MovementListener implements Listener {
+    /**
+     * A transition computed by {@link #onMove(PlayerMoveEvent)}, applied once no other plugin
+     * cancelled the movement.
+     *
+     * @param event the event the transition was computed for
+     * @param transition the transition of the player
+     */
+    private record PendingMove(PlayerMoveEvent event, PlayerRegionTracker.Transition transition) {}
+
     private final OrbisPaperPlatform<?> orbis;
+    private final Map<UUID, PendingMove> pending = new HashMap<>();
     private static final long DENY_COOLDOWN_MS = 3000L;
     private static final NamespacedKey ENTRY_DENY_COOLDOWN_KEY =
             new NamespacedKey("orbis", "entry_deny_cooldown");
@@ -59,19 +76,25 @@ public class MovementListener implements Listener {
     public void onMove(PlayerMoveEvent event) {
         final Location to = event.getTo();
         final Location from = event.getFrom();
-        if (to == null || from.getBlock().equals(to.getBlock())) return;
+        if (to == null) return;
 
         final Player player = event.getPlayer();
         final RegionisedWorld world = orbis.getRegionisedWorld(to.getWorld());
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> toQuery = world.query(
-                RegionQuery.Position.builder().position(to.getX(), to.getY(), to.getZ()));
-        final boolean canMove = toQuery.query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER)
+        final PlayerRegionTracker.Transition transition = orbis.regionTracker()
+                .move(player.getUniqueId(), world, to.getX(), to.getY(), to.getZ());
+        // The player is still within the same block
+        if (transition == null) return;
+
+        final SortedRegionView toRegions = transition.to();
+        final boolean canMove = toRegions
+                .query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER)
                         .player(player.getUniqueId()))
                 .result()
                 .orElse(true);
 
         if (!canMove) {
-            handleEntryDenial(player, toQuery);
+            pending.remove(player.getUniqueId());
+            handleEntryDenial(player, toRegions);
             event.setTo(new Location(
                     from.getWorld(),
                     from.getX(),
@@ -83,33 +106,56 @@ public class MovementListener implements Listener {
         }
 
         if (player.isGliding()) {
-            final boolean canGlide = toQuery.query(RegionQuery.Flag.builder(DefaultFlags.CAN_GLIDE)
+            final boolean canGlide = toRegions
+                    .query(RegionQuery.Flag.builder(DefaultFlags.CAN_GLIDE)
                             .player(player.getUniqueId()))
                     .result()
                     .orElse(true);
             if (!canGlide) {
+                pending.remove(player.getUniqueId());
                 player.setGliding(false);
                 return;
             }
         }
 
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> fromQuery = world.query(
-                RegionQuery.Position.builder().position(from.getX(), from.getY(), from.getZ()));
-        final Set<Region> toRegions = toQuery.result();
-        final Set<Region> fromRegions = fromQuery.result();
-        for (Region possiblyEntered : toRegions) {
-            if (fromRegions.contains(possiblyEntered)) continue;
-            Bukkit.getPluginManager()
-                    .callEvent(new RegionEnterEvent(player, to, world, possiblyEntered));
+        pending.put(player.getUniqueId(), new PendingMove(event, transition));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onMoveCompleted(PlayerMoveEvent event) {
+        final Player player = event.getPlayer();
+        final PendingMove move = pending.remove(player.getUniqueId());
+        if (move == null || move.event() != event) return;
+
+        // Another plugin changed the destination after the transition was computed, so it was
+        // never checked against CAN_ENTER. Leave the tracker as it is for the next move to check.
+        final Location to = event.getTo();
+        final PlayerRegionTracker.Transition transition = move.transition();
+        final RegionisedWorld world = transition.world();
+        final long position = PackedPositions.pack(to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        if (world != orbis.getRegionisedWorld(to.getWorld()) || transition.position() != position) {
+            return;
+        }
+
+        orbis.regionTracker().apply(player.getUniqueId(), transition);
+        for (Region entered : transition.entered()) {
+            Bukkit.getPluginManager().callEvent(new RegionEnterEvent(player, to, world, entered));
+        }
+
+        for (Region left : transition.left()) {
+            Bukkit.getPluginManager().callEvent(new RegionLeaveEvent(player, to, world, left));
         }
 
-        for (Region possiblyLeft : fromRegions) {
-            if (toRegions.contains(possiblyLeft)) continue;
-            Bukkit.getPluginManager()
-                    .callEvent(new RegionLeaveEvent(player, to, world, possiblyLeft));
+        if (!transition.entered().isEmpty() || !transition.left().isEmpty()) {
+            this.applyTimeChanges(player);
         }
     }
 
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        pending.remove(event.getPlayer().getUniqueId());
+    }
+
     @EventHandler
     public void onTeleport(PlayerTeleportEvent event) {
         final Player player = event.getPlayer();
@@ -127,8 +173,7 @@ public class MovementListener implements Listener {
         }
     }
 
-    private void handleEntryDenial(
-            Player player, RegionQuery.FilterableRegionResult<?> queryResult) {
+    private void handleEntryDenial(Player player, RegionQuery.Flag.Queryable queryResult) {
         long lastDenied = player.getPersistentDataContainer()
                 .getOrDefault(ENTRY_DENY_COOLDOWN_KEY, PersistentDataType.LONG, 0L);
         if (System.currentTimeMillis() - lastDenied >= DENY_COOLDOWN_MS) {
@@ -167,7 +212,6 @@ public class MovementListener implements Listener {
     public void onEnter(RegionEnterEvent event) {
         final Player player = event.getPlayer();
         final Region region = event.getRegion();
-        this.applyTimeChanges(player, event.getWorld(), event.getLocation());
         region.query(RegionQuery.Flag.builder(DefaultFlags.ENTRY_MESSAGE))
                 .result()
                 .ifPresent(message -> player.sendMessage(orbis.miniMessage().deserialize(message)));
@@ -186,7 +230,6 @@ public class MovementListener implements Listener {
     public void onLeave(RegionLeaveEvent event) {
         final Player player = event.getPlayer();
         final Region region = event.getRegion();
-        this.applyTimeChanges(player, event.getWorld(), event.getLocation());
         region.query(RegionQuery.Flag.builder(DefaultFlags.EXIT_MESSAGE))
                 .result()
                 .ifPresent(message -> player.sendMessage(orbis.miniMessage().deserialize(message)));
@@ -219,10 +262,10 @@ public class MovementListener implements Listener {
         }
     }
 
-    private void applyTimeChanges(Player player, RegionisedWorld world, Location location) {
-        final var timeResult = world.query(
-                        RegionQuery.Position.at(location.getX(), location.getY(), location.getZ())
-                                .build())
+    private void applyTimeChanges(Player player) {
+        // The tracker already holds the regions the player moved into
+        final var timeResult = orbis.regionTracker()
+                .regions(player.getUniqueId())
                 .query(RegionQuery.Flag.builder(DefaultFlags.TIME).player(player.getUniqueId()))
                 .result();
         timeResult.ifPresentOrElse(
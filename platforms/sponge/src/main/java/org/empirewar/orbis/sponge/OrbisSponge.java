@@ -48,6 +48,7 @@ import org.spongepowered.api.event.lifecycle.RegisterCommandEvent;
 import org.spongepowered.api.event.lifecycle.RegisterDataEvent;
 import org.spongepowered.api.event.lifecycle.StartedEngineEvent;
 import org.spongepowered.api.event.lifecycle.StartingEngineEvent;
+import org.spongepowered.api.event.lifecycle.StoppedGameEvent;
 import org.spongepowered.api.event.lifecycle.StoppingEngineEvent;
 import org.spongepowered.api.event.world.LoadWorldEvent;
 import org.spongepowered.api.event.world.UnloadWorldEvent;
@@ -128,6 +129,16 @@ public class OrbisSponge extends OrbisPlatform {
         }
     }
 
+    @Listener
+    public void onGameStopped(final StoppedGameEvent event) {
+        // Worlds may unload after the server started stopping, so write what they queued
+        try {
+            shutdown();
+        } catch (IOException e) {
+            logger().error("Error closing region storage", e);
+        }
+    }
+
     @Listener
     private void onRegisterData(final RegisterDataEvent event) {
         SpongeDataKeys.register(event);
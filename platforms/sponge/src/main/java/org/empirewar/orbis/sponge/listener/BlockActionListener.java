@@ -29,9 +29,9 @@ import org.empirewar.orbis.Orbis;
 import org.empirewar.orbis.flag.DefaultFlags;
 import org.empirewar.orbis.flag.RegistryRegionFlag;
 import org.empirewar.orbis.query.RegionQuery;
+import org.empirewar.orbis.util.PackedPositions;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.jetbrains.annotations.Nullable;
-import org.joml.Vector3d;
 import org.spongepowered.api.block.BlockSnapshot;
 import org.spongepowered.api.block.BlockTypes;
 import org.spongepowered.api.block.transaction.Operations;
@@ -52,6 +52,7 @@ import org.spongepowered.api.world.server.ServerLocation;
 import org.spongepowered.math.vector.Vector3i;
 
 import java.util.List;
+import java.util.UUID;
 
 public final class BlockActionListener {
 
@@ -167,12 +168,20 @@ public final class BlockActionListener {
             return;
         }
 
-        event.locations().forEach(location -> {
-            if (shouldPreventBlockAction(
-                    location.createSnapshot(), DefaultFlags.ACTIVATE_PISTONS)) {
-                event.setCancelled(true);
-            }
-        });
+        final List<ServerLocation> locations = event.locations();
+        if (locations.isEmpty()) return;
+        final long[] positions = new long[locations.size()];
+        for (int i = 0; i < positions.length; i++) {
+            final Vector3i pos = locations.get(i).blockPosition();
+            positions[i] = PackedPositions.pack(pos.x(), pos.y(), pos.z());
+        }
+
+        final RegionisedWorld world = orbis.getRegionisedWorld(event.world().key());
+        final RegionQuery.Flag<Boolean> query =
+                RegionQuery.Flag.builder(DefaultFlags.ACTIVATE_PISTONS).build();
+        if (!world.queryDenied(positions, query).isEmpty()) {
+            event.setCancelled(true);
+        }
     }
 
     private boolean shouldPreventBlockAction(
@@ -184,16 +193,10 @@ public final class BlockActionListener {
     private boolean shouldPreventBlockAction(@Nullable BlockSnapshot block, @Nullable ServerPlayer player, RegistryRegionFlag<Boolean> flag) {
         // spotless:on
         if (block == null) return false;
-        final Vector3i blockPos = block.position();
-        final Vector3d pos = new Vector3d(blockPos.x(), blockPos.y(), blockPos.z());
+        final Vector3i pos = block.position();
         final RegionisedWorld world =
                 orbis.getRegionisedWorld(block.location().orElseThrow().world().key());
-        final RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) builder.player(player.uniqueId());
-        final boolean canAct = world.query(RegionQuery.Position.builder().position(pos))
-                .query(builder)
-                .result()
-                .orElse(true);
-        return !canAct;
+        final UUID playerId = player == null ? null : player.uniqueId();
+        return !world.test(pos.x(), pos.y(), pos.z(), flag, playerId, true);
     }
 }
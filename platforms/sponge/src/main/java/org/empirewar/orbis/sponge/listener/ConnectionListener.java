@@ -24,7 +24,9 @@
 package org.empirewar.orbis.sponge.listener;
 
 import org.empirewar.orbis.OrbisPlatform;
+import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.entity.ChangeEntityWorldEvent;
 import org.spongepowered.api.event.network.ServerSideConnectionEvent;
 
 import java.util.UUID;
@@ -42,5 +44,14 @@ public final class ConnectionListener {
         final UUID uuid = event.player().uniqueId();
         api.selectionManager().remove(uuid);
         api.setVisualising(uuid, false);
+        api.regionTracker().remove(uuid);
+        api.permissionCache().invalidate(uuid);
+    }
+
+    @Listener
+    public void onChangeWorld(ChangeEntityWorldEvent.Post event) {
+        if (event.entity() instanceof ServerPlayer player) {
+            api.permissionCache().invalidate(player.uniqueId());
+        }
     }
 }
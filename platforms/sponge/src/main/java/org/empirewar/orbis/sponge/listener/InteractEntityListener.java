@@ -52,6 +52,7 @@ import org.spongepowered.api.registry.RegistryTypes;
 import org.spongepowered.math.vector.Vector3d;
 
 import java.util.List;
+import java.util.UUID;
 
 public final class InteractEntityListener {
 
@@ -66,13 +67,6 @@ public final class InteractEntityListener {
         final Entity attacked = event.entity();
         final ServerPlayer player = event.cause().first(ServerPlayer.class).orElse(null);
 
-        final RegionisedWorld world =
-                orbis.getRegionisedWorld(attacked.serverLocation().world().key());
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> positionQuery =
-                world.query(RegionQuery.Position.at(
-                        attacked.position().x(),
-                        attacked.position().y(),
-                        attacked.position().z()));
         final RegistryRegionFlag<Boolean> flag =
                 switch (attacked) {
                     case Vehicle ignored -> DefaultFlags.CAN_DESTROY_VEHICLE;
@@ -82,10 +76,7 @@ public final class InteractEntityListener {
                 };
 
         if (flag != null) {
-            final RegionQuery.Flag.Builder<Boolean> flagQueryBuilder =
-                    RegionQuery.Flag.builder(flag);
-            if (player != null) flagQueryBuilder.player(player.uniqueId());
-            if (!positionQuery.query(flagQueryBuilder).result().orElse(true)) {
+            if (shouldPreventEntityAction(attacked, player, flag)) {
                 event.setCancelled(true);
             }
             return;
@@ -102,6 +93,13 @@ public final class InteractEntityListener {
             return;
         }
 
+        final RegionisedWorld world =
+                orbis.getRegionisedWorld(attacked.serverLocation().world().key());
+        final RegionQuery.FilterableRegionResult<RegionQuery.Position> positionQuery =
+                world.query(RegionQuery.Position.at(
+                        attacked.position().x(),
+                        attacked.position().y(),
+                        attacked.position().z()));
         final RegionQuery.Flag.Builder<List<Key>> flagQueryBuilder =
                 RegionQuery.Flag.builder(DefaultFlags.DAMAGEABLE_ENTITIES);
         if (player != null) flagQueryBuilder.player(player.uniqueId());
@@ -187,16 +185,9 @@ public final class InteractEntityListener {
                 orbis.getRegionisedWorld(entity.serverLocation().world().key());
         if (world == null) return false;
 
-        RegionQuery.Flag.Builder<Boolean> builder = RegionQuery.Flag.builder(flag);
-        if (player != null) {
-            builder.player(player.uniqueId());
-        }
-
+        final UUID playerId = player == null ? null : player.uniqueId();
         final Vector3d location = entity.position();
-        return !world.query(RegionQuery.Position.builder()
-                        .position(location.x(), location.y(), location.z()))
-                .query(builder)
-                .result()
-                .orElse(true);
+        return !world.test(
+                location.floorX(), location.floorY(), location.floorZ(), flag, playerId, true);
     }
 }
@@ -25,28 +25,46 @@ package org.empirewar.orbis.sponge.listener;
 
 import org.empirewar.orbis.Orbis;
 import org.empirewar.orbis.flag.DefaultFlags;
+import org.empirewar.orbis.player.PlayerRegionTracker;
 import org.empirewar.orbis.query.RegionQuery;
 import org.empirewar.orbis.region.Region;
 import org.empirewar.orbis.sponge.api.RegionEnterEvent;
 import org.empirewar.orbis.sponge.api.RegionLeaveEvent;
+import org.empirewar.orbis.util.PackedPositions;
 import org.empirewar.orbis.world.RegionisedWorld;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.data.Keys;
 import org.spongepowered.api.entity.living.player.server.ServerPlayer;
 import org.spongepowered.api.event.EventContextKeys;
 import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
 import org.spongepowered.api.event.cause.entity.MovementTypes;
 import org.spongepowered.api.event.data.ChangeDataHolderEvent;
 import org.spongepowered.api.event.entity.MoveEntityEvent;
+import org.spongepowered.api.event.filter.IsCancelled;
+import org.spongepowered.api.event.network.ServerSideConnectionEvent;
+import org.spongepowered.api.util.Tristate;
 import org.spongepowered.api.world.server.ServerLocation;
 import org.spongepowered.math.vector.Vector3d;
 import org.spongepowered.plugin.PluginContainer;
 
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 public final class MovementListener {
 
+    /**
+     * A transition computed by {@link #onMove(MoveEntityEvent)}, applied once no other plugin
+     * cancelled the movement.
+     *
+     * @param event the event the transition was computed for
+     * @param transition the transition of the player
+     */
+    private record PendingMove(MoveEntityEvent event, PlayerRegionTracker.Transition transition) {}
+
     private final Orbis orbis;
+    private final Map<UUID, PendingMove> pending = new HashMap<>();
 
     public MovementListener(Orbis orbis) {
         this.orbis = orbis;
@@ -56,7 +74,6 @@ public final class MovementListener {
     public void onMove(MoveEntityEvent event) {
         if (!(event.entity() instanceof ServerPlayer player)) return;
         final Vector3d to = event.destinationPosition();
-        final Vector3d from = event.originalPosition();
         final RegionisedWorld world = orbis.getRegionisedWorld(player.world().key());
 
         if (event.context().get(EventContextKeys.MOVEMENT_TYPE).orElse(null)
@@ -73,45 +90,69 @@ public final class MovementListener {
             return;
         }
 
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> toQuery =
-                world.query(RegionQuery.Position.builder().position(to.x(), to.y(), to.z()));
-        final boolean canMove = toQuery.query(
-                        RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER).player(player.uniqueId()))
+        final PlayerRegionTracker.Transition transition =
+                orbis.regionTracker().move(player.uniqueId(), world, to.x(), to.y(), to.z());
+        // The player is still within the same block
+        if (transition == null) return;
+
+        final boolean canMove = transition
+                .to()
+                .query(RegionQuery.Flag.builder(DefaultFlags.CAN_ENTER).player(player.uniqueId()))
                 .result()
                 .orElse(true);
 
         if (!canMove) {
+            pending.remove(player.uniqueId());
             event.setCancelled(true);
             return;
         }
 
-        final RegionQuery.FilterableRegionResult<RegionQuery.Position> fromQuery =
-                world.query(RegionQuery.Position.builder().position(from.x(), from.y(), from.z()));
-        final Set<Region> toRegions = toQuery.result();
-        final Set<Region> fromRegions = fromQuery.result();
-        for (Region possiblyEntered : toRegions) {
-            if (fromRegions.contains(possiblyEntered)) continue;
+        pending.put(player.uniqueId(), new PendingMove(event, transition));
+    }
+
+    @Listener(order = Order.POST)
+    @IsCancelled(Tristate.FALSE)
+    public void onMoveCompleted(MoveEntityEvent event) {
+        if (!(event.entity() instanceof ServerPlayer player)) return;
+        final PendingMove move = pending.remove(player.uniqueId());
+        if (move == null || move.event() != event) return;
+
+        // Another plugin changed the destination after the transition was computed, so it was
+        // never checked against CAN_ENTER. Leave the tracker as it is for the next move to check.
+        final Vector3d to = event.destinationPosition();
+        final PlayerRegionTracker.Transition transition = move.transition();
+        final RegionisedWorld world = transition.world();
+        if (transition.position() != PackedPositions.pack(to.floorX(), to.floorY(), to.floorZ())) {
+            return;
+        }
+
+        orbis.regionTracker().apply(player.uniqueId(), transition);
+        for (Region entered : transition.entered()) {
             Sponge.eventManager()
                     .post(new RegionEnterEvent(
                             player,
                             ServerLocation.of(player.world(), to),
                             world,
-                            possiblyEntered,
+                            entered,
                             event.cause()));
         }
 
-        for (Region possiblyLeft : fromRegions) {
-            if (toRegions.contains(possiblyLeft)) continue;
+        for (Region left : transition.left()) {
             Sponge.eventManager()
                     .post(new RegionLeaveEvent(
                             player,
                             ServerLocation.of(player.world(), to),
                             world,
-                            possiblyLeft,
+                            left,
                             event.cause()));
         }
     }
 
+    @Listener
+    public void onQuit(ServerSideConnectionEvent.Leave event) {
+        pending.remove(event.player().uniqueId());
+    }
+
     @Listener
     public void onFoodLevelChange(ChangeDataHolderEvent.ValueChange event) {
         if (!(event.targetHolder() instanceof ServerPlayer entity)) return;